@@ -0,0 +1,47 @@
+package ftn.reservationservice.config.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdminTokenProviderBenchmark {
+
+    private static final String JWT_SECRET = "devops_secret_key_2024";
+    private static final long EXPIRATION_TIME = 30L * 24 * 60 * 60 * 1000;
+
+    private AdminTokenProvider adminTokenProvider;
+
+    @Setup
+    public void setup() {
+        adminTokenProvider = new AdminTokenProvider(JWT_SECRET, Duration.ofDays(30), Duration.ofDays(1));
+    }
+
+    // what RestService did before for every outbound call
+    @Benchmark
+    public String signTokenPerCall() {
+        return Jwts.builder()
+                .setSubject("admin@ftn.com")
+                .claim("role", "ADMIN")
+                .claim("userId", "e40fcab5-d45b-4567-9d91-14e58178fea6")
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .signWith(SignatureAlgorithm.HS512, JWT_SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String cachedToken() {
+        return adminTokenProvider.getToken();
+    }
+
+}
@@ -0,0 +1,60 @@
+package ftn.reservationservice.config.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+
+    private static final String JWT_SECRET = "devops_secret_key_2024";
+
+    private AuthenticationFilter authenticationFilter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup
+    public void setup() {
+        authenticationFilter = new AuthenticationFilter();
+        ReflectionTestUtils.setField(authenticationFilter, "jwtSecret", JWT_SECRET);
+
+        String token = Jwts.builder()
+                .setSubject("host")
+                .claim("role", "HOST")
+                .claim("userId", "e49fcab5-d45b-4556-9d91-14e58177fea6")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(SignatureAlgorithm.HS512, JWT_SECRET)
+                .compact();
+        request = new MockHttpServletRequest("GET", "/api/reservation/all/host");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object parseTokenAndAuthenticate() throws Exception {
+        authenticationFilter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+}
@@ -0,0 +1,75 @@
+package ftn.reservationservice.domain.mappers;
+
+import ftn.reservationservice.domain.dtos.RequestForReservationDto;
+import ftn.reservationservice.domain.dtos.ReservationDto;
+import ftn.reservationservice.domain.entities.RequestForReservation;
+import ftn.reservationservice.domain.entities.RequestForReservationStatus;
+import ftn.reservationservice.domain.entities.Reservation;
+import ftn.reservationservice.domain.entities.ReservationStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private List<Reservation> reservations;
+
+    private List<RequestForReservation> requests;
+
+    @Setup
+    public void setup() {
+        LocalDateTime start = LocalDateTime.parse("2030-01-01T00:00:00");
+        reservations = new ArrayList<>(size);
+        requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UUID requestId = UUID.randomUUID();
+            requests.add(RequestForReservation.builder()
+                    .id(requestId)
+                    .lodgeId(UUID.randomUUID())
+                    .guestId(UUID.randomUUID())
+                    .ownerId(UUID.randomUUID())
+                    .price(250)
+                    .dateFrom(start.plusDays(i))
+                    .dateTo(start.plusDays(i + 2L))
+                    .numberOfGuests(2)
+                    .status(RequestForReservationStatus.APPROVED)
+                    .build());
+            reservations.add(Reservation.builder()
+                    .id(UUID.randomUUID())
+                    .lodgeId(UUID.randomUUID())
+                    .guestId(UUID.randomUUID())
+                    .ownerId(UUID.randomUUID())
+                    .requestForReservationId(requestId)
+                    .price(250)
+                    .dateFrom(start.plusDays(i))
+                    .dateTo(start.plusDays(i + 2L))
+                    .numberOfGuests(2)
+                    .status(ReservationStatus.ACTIVE)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<ReservationDto> reservationToDtoList() {
+        return ReservationMapper.INSTANCE.toDto(reservations);
+    }
+
+    @Benchmark
+    public List<RequestForReservationDto> requestForReservationToDtoList() {
+        return RequestForReservationMapper.INSTANCE.toDto(requests);
+    }
+
+}
@@ -0,0 +1,55 @@
+package ftn.reservationservice.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsServiceBenchmark {
+
+    @Param({"200", "404"})
+    private int status;
+
+    @Param({"1", "100"})
+    private int visitors;
+
+    private MetricsService metricsService;
+
+    private MockHttpServletRequest[] requests;
+
+    private MockHttpServletResponse response;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        metricsService = new MetricsService(new SimpleMeterRegistry(), 100);
+        requests = new MockHttpServletRequest[visitors];
+        for (int i = 0; i < visitors; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reservation/host/" + i);
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/reservation/host/{id}");
+            request.setRemoteAddr("10.0.0." + i);
+            request.addHeader("User-Agent", "Mozilla/5.0 (X11; Linux x86_64) benchmark/" + i);
+            requests[i] = request;
+        }
+        response = new MockHttpServletResponse();
+        response.setStatus(status);
+    }
+
+    @Benchmark
+    public void trackHttpRequest() {
+        MockHttpServletRequest request = requests[next];
+        next = next + 1 == visitors ? 0 : next + 1;
+        metricsService.trackHttpRequest(request, response, 1_500_000);
+    }
+
+}
@@ -0,0 +1,74 @@
+package ftn.reservationservice.services;
+
+import ftn.reservationservice.domain.dtos.LodgeAvailabilityPeriodDto;
+import ftn.reservationservice.domain.entities.RequestForReservation;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestForReservationServiceBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int availabilityPeriods;
+
+    private RequestForReservationService requestForReservationService;
+
+    private List<LodgeAvailabilityPeriodDto> periods;
+
+    private RequestForReservation request;
+
+    @Setup
+    public void setup() {
+        // only the pure calculation methods are benchmarked, none of them touches a collaborator
+        requestForReservationService = new RequestForReservationService(null, null, null, null, null, null, null);
+
+        UUID lodgeId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.parse("2030-01-01T00:00:00");
+        periods = new ArrayList<>(availabilityPeriods);
+        for (int i = 0; i < availabilityPeriods; i++) {
+            periods.add(LodgeAvailabilityPeriodDto.builder()
+                    .id(UUID.randomUUID())
+                    .lodgeId(lodgeId)
+                    .dateFrom(start.plusDays(i * 10L))
+                    .dateTo(start.plusDays(i * 10L + 9))
+                    .priceType(i % 2 == 0 ? "PER_GUEST" : "PER_LODGE")
+                    .price(100)
+                    .build());
+        }
+
+        // matches the last period, the worst case for the linear lookup
+        LocalDateTime requestFrom = start.plusDays((availabilityPeriods - 1) * 10L + 2).plusHours(14);
+        request = RequestForReservation.builder()
+                .lodgeId(lodgeId)
+                .dateFrom(requestFrom)
+                .dateTo(requestFrom.plusDays(4).minusHours(4))
+                .numberOfGuests(3)
+                .build();
+    }
+
+    @Benchmark
+    public LodgeAvailabilityPeriodDto getLodgeAvailabilityPeriodCompatibleWithRequest() {
+        return requestForReservationService.getLodgeAvailabilityPeriodCompatibleWithRequest(request, periods);
+    }
+
+    @Benchmark
+    public double calculatePrice() {
+        return requestForReservationService.calculatePrice(request, periods);
+    }
+
+    @Benchmark
+    public int calculateDaysBetween() {
+        return requestForReservationService.calculateDaysBetween(request.getDateFrom(), request.getDateTo());
+    }
+
+}
@@ -0,0 +1,85 @@
+package ftn.reservationservice.services;
+
+import ftn.reservationservice.domain.entities.Reservation;
+import ftn.reservationservice.domain.entities.ReservationStatus;
+import ftn.reservationservice.repositories.ReservationRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationOverlapBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int reservationsPerLodge;
+
+    private UUID lodgeId;
+
+    private List<Reservation> activeReservations;
+
+    private ReservationAvailabilityIndex reservationAvailabilityIndex;
+
+    private LocalDateTime dateFrom;
+
+    private LocalDateTime dateTo;
+
+    @Setup
+    public void setup() {
+        lodgeId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.parse("2030-01-01T00:00:00");
+        activeReservations = new ArrayList<>(reservationsPerLodge);
+        for (int i = 0; i < reservationsPerLodge; i++) {
+            activeReservations.add(Reservation.builder()
+                    .id(UUID.randomUUID())
+                    .lodgeId(lodgeId)
+                    .dateFrom(start.plusDays(i * 3L))
+                    .dateTo(start.plusDays(i * 3L + 2))
+                    .status(ReservationStatus.ACTIVE)
+                    .build());
+        }
+
+        // the index only ever asks the repository for the lodge's active reservations
+        ReservationRepository reservationRepository = (ReservationRepository) Proxy.newProxyInstance(
+                ReservationRepository.class.getClassLoader(),
+                new Class<?>[]{ReservationRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByStatusAndLodgeId")) {
+                        return activeReservations;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        reservationAvailabilityIndex = new ReservationAvailabilityIndex(reservationRepository, Duration.ofDays(1));
+
+        // the free gap right after the last stay, every reservation has to be looked at by the loop
+        dateFrom = start.plusDays((reservationsPerLodge - 1) * 3L + 2);
+        dateTo = dateFrom.plusDays(1);
+    }
+
+    // what the request workflow did before the index, a scan over all active reservations of the lodge
+    @Benchmark
+    public boolean linearScan() {
+        for (Reservation reservation : activeReservations) {
+            if (reservation.getDateFrom().isBefore(dateTo) && reservation.getDateTo().isAfter(dateFrom)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean availabilityIndex() {
+        return reservationAvailabilityIndex.hasOverlappingReservation(lodgeId, dateFrom, dateTo);
+    }
+
+}
@@ -0,0 +1,55 @@
+package ftn.reservationservice.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String LODGES = "lodges";
+    public static final String LODGE_AVAILABILITY_PERIODS = "lodgeAvailabilityPeriods";
+    public static final String USERS = "users";
+
+    @Value("${cache.lodges.maximum-size}")
+    private long lodgesMaximumSize;
+    @Value("${cache.lodges.expire-after-write}")
+    private Duration lodgesExpireAfterWrite;
+    @Value("${cache.lodge-availability-periods.maximum-size}")
+    private long lodgeAvailabilityPeriodsMaximumSize;
+    @Value("${cache.lodge-availability-periods.expire-after-write}")
+    private Duration lodgeAvailabilityPeriodsExpireAfterWrite;
+    @Value("${cache.users.maximum-size}")
+    private long usersMaximumSize;
+    @Value("${cache.users.expire-after-write}")
+    private Duration usersExpireAfterWrite;
+
+    @Bean
+    public CacheManager cacheManager() {
+        final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(LODGES, Caffeine.newBuilder()
+                .maximumSize(lodgesMaximumSize)
+                .expireAfterWrite(lodgesExpireAfterWrite)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(LODGE_AVAILABILITY_PERIODS, Caffeine.newBuilder()
+                .maximumSize(lodgeAvailabilityPeriodsMaximumSize)
+                .expireAfterWrite(lodgeAvailabilityPeriodsExpireAfterWrite)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+                .maximumSize(usersMaximumSize)
+                .expireAfterWrite(usersExpireAfterWrite)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+}
@@ -0,0 +1,82 @@
+package ftn.reservationservice.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadOnlyRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    // One pool per replica url, all sharing spring.datasource.replica.hikari settings and credentials defaulting to the
+    // primary ones. Pools report hikaricp.* metrics tagged with their own pool name (replica-0, replica-1, ...).
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSources replicaDataSources(DataSourceProperties properties,
+                                                 Environment environment,
+                                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                                 @Value("${spring.datasource.replica.urls:}") List<String> urls,
+                                                 @Value("${spring.datasource.replica.username:${spring.datasource.username}}") String username,
+                                                 @Value("${spring.datasource.replica.password:${spring.datasource.password}}") String password) {
+        List<ReplicaDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            Binder.get(environment).bind("spring.datasource.replica.hikari", Bindable.ofInstance(dataSource));
+            String name = "replica-" + replicas.size();
+            dataSource.setPoolName(name);
+            dataSource.setReadOnly(true);
+            meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+            replicas.add(new ReplicaDataSource(name, dataSource));
+        }
+        return new ReplicaDataSources(replicas);
+    }
+
+    // The lazy proxy defers fetching the physical connection until the first statement, by then the
+    // transaction manager has published the readOnly flag the routing decision depends on.
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReplicaDataSources replicaDataSources) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadOnlyRoutingDataSource.PRIMARY, primaryDataSource);
+        replicaDataSources.getReplicas().forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+
+        ReadOnlyRoutingDataSource routingDataSource = new ReadOnlyRoutingDataSource(replicaDataSources.getReplicas());
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+}
@@ -0,0 +1,39 @@
+package ftn.reservationservice.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends connections of readOnly transactions to the available replicas in round-robin order and everything else
+// (including work outside a transaction) to the primary. With no replica available reads fall back to the primary.
+public class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<ReplicaDataSource> replicas;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadOnlyRoutingDataSource(List<ReplicaDataSource> replicas) {
+        this.replicas = replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            ReplicaDataSource replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.isAvailable()) {
+                return replica.getName();
+            }
+        }
+        return PRIMARY;
+    }
+
+}
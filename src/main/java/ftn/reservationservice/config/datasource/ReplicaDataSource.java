@@ -0,0 +1,32 @@
+package ftn.reservationservice.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+@Getter
+public class ReplicaDataSource {
+
+    private final String name;
+
+    private final HikariDataSource dataSource;
+
+    // optimistic until the first lag check, a replica that can't be reached or lags too far is skipped
+    private volatile boolean available = true;
+
+    private volatile double lagSeconds;
+
+    public ReplicaDataSource(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public void lagMeasured(double lagSeconds, boolean available) {
+        this.lagSeconds = lagSeconds;
+        this.available = available;
+    }
+
+    public void markUnavailable() {
+        this.available = false;
+    }
+
+}
@@ -0,0 +1,21 @@
+package ftn.reservationservice.config.datasource;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class ReplicaDataSources implements AutoCloseable {
+
+    private final List<ReplicaDataSource> replicas;
+
+    public ReplicaDataSources(List<ReplicaDataSource> replicas) {
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.getDataSource().close());
+    }
+
+}
@@ -0,0 +1,88 @@
+package ftn.reservationservice.config.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+// Takes replicas that lag more than max-lag behind the primary, or can't be queried, out of the read rotation.
+// A replica that has replayed everything it received reports no lag even when the primary has been idle, but only
+// while its WAL receiver is streaming. One that lost the receiver replays what it got and then silently goes stale,
+// so it is taken out regardless of the measured lag.
+@Slf4j
+@Component
+public class ReplicaLagMonitor {
+
+    // Without pg_read_all_stats (pg_monitor) the receiver's status reads as null, its row only exists while it runs
+    private static final String LAG_QUERY = "SELECT pg_is_in_recovery(), " +
+            "EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status IS NULL OR status = 'streaming'), " +
+            "pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn(), " +
+            "EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())";
+
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final ReplicaDataSources replicaDataSources;
+
+    private final double maxLagSeconds;
+
+    public ReplicaLagMonitor(ReplicaDataSources replicaDataSources,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.datasource.replica.max-lag:PT5S}") Duration maxLag) {
+        this.replicaDataSources = replicaDataSources;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        for (ReplicaDataSource replica : replicaDataSources.getReplicas()) {
+            Gauge.builder("reservation.datasource.replica.lag", replica, ReplicaDataSource::getLagSeconds)
+                    .description("Replication lag of the replica behind the primary")
+                    .baseUnit("seconds")
+                    .tag("pool", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("reservation.datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("Whether the replica currently receives read-only transactions")
+                    .tag("pool", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.lag-check-interval:PT5S}")
+    public void checkReplicationLag() {
+        for (ReplicaDataSource replica : replicaDataSources.getReplicas()) {
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+                try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                    resultSet.next();
+                    boolean inRecovery = resultSet.getBoolean(1);
+                    boolean streaming = !inRecovery || resultSet.getBoolean(2);
+                    boolean caughtUp = !inRecovery || resultSet.getBoolean(3);
+                    double sinceLastReplay = resultSet.getDouble(4);
+                    if (resultSet.wasNull()) {
+                        // nothing replayed since startup, only a streaming replica can vouch for being current
+                        sinceLastReplay = streaming ? 0 : Double.POSITIVE_INFINITY;
+                    }
+                    double lagSeconds = streaming && caughtUp ? 0 : sinceLastReplay;
+                    boolean available = streaming && lagSeconds <= maxLagSeconds;
+                    if (replica.isAvailable() && !streaming) {
+                        log.warn("Replica {} isn't streaming WAL from the primary, routing its reads to the primary", replica.getName());
+                    } else if (replica.isAvailable() && !available) {
+                        log.warn("Replica {} lags {}s behind the primary, routing its reads to the primary", replica.getName(), lagSeconds);
+                    }
+                    replica.lagMeasured(lagSeconds, available);
+                }
+            } catch (SQLException e) {
+                if (replica.isAvailable()) {
+                    log.warn("Replica {} is unreachable, routing its reads to the primary: ", replica.getName(), e);
+                }
+                replica.markUnavailable();
+            }
+        }
+    }
+
+}
@@ -25,16 +25,22 @@ public class QueueConfig {
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate() {
-        final RabbitTemplate rabbitTemplate = new RabbitTemplate(new CachingConnectionFactory(host, port));
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+    public Queue lodgeCacheInvalidationQueue() {
+        return new Queue("lodgeCacheInvalidationQueue");
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(Jackson2JsonMessageConverter jsonMessageConverter) {
+        final CachingConnectionFactory connectionFactory = new CachingConnectionFactory(host, port);
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.SIMPLE);
+        final RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMessageConverter(jsonMessageConverter);
         return rabbitTemplate;
     }
 
     @Bean
-    public Jackson2JsonMessageConverter jsonMessageConverter() {
-        ObjectMapper mapper = new ObjectMapper();
-        return new Jackson2JsonMessageConverter(mapper);
+    public Jackson2JsonMessageConverter jsonMessageConverter(ObjectMapper objectMapper) {
+        return new Jackson2JsonMessageConverter(objectMapper);
     }
 
     //systemctl status rabbitmq-server.service
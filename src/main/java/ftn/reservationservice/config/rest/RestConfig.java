@@ -1,21 +1,73 @@
 package ftn.reservationservice.config.rest;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class RestConfig {
 
+    @Value("${rest.client.max-connections-total}")
+    private int maxConnectionsTotal;
+    @Value("${rest.client.max-connections-per-route}")
+    private int maxConnectionsPerRoute;
+    @Value("${rest.client.connect-timeout}")
+    private Duration connectTimeout;
+    @Value("${rest.client.read-timeout}")
+    private Duration readTimeout;
+    @Value("${rest.client.connection-request-timeout}")
+    private Duration connectionRequestTimeout;
+    @Value("${rest.client.keep-alive}")
+    private Duration keepAlive;
+    @Value("${rest.client.time-to-live}")
+    private Duration timeToLive;
+
     @Bean
-    public RestTemplate restTemplate() {
-        final RestTemplate restTemplate = new RestTemplate();
-        final SimpleClientHttpRequestFactory requestFactory = (SimpleClientHttpRequestFactory) restTemplate.getRequestFactory();
-        requestFactory.setConnectTimeout(10 * 1000);
-        requestFactory.setReadTimeout(60 * 60 * 1000);
+    public PoolingHttpClientConnectionManager restConnectionManager(MeterRegistry meterRegistry) {
+        final PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "rest-client").bindTo(meterRegistry);
+        return connectionManager;
+    }
 
-        return restTemplate;
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient restHttpClient(PoolingHttpClientConnectionManager restConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(restConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient restHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(restHttpClient));
     }
 
 }
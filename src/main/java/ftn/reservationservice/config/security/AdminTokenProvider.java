@@ -0,0 +1,73 @@
+package ftn.reservationservice.config.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+// Admin JWT used for inter-service calls, signed once and re-signed in the background before it expires
+@Component
+@Slf4j
+public class AdminTokenProvider {
+
+    private final String jwtSecret;
+    private final long validityMillis;
+    private final long refreshBeforeMillis;
+
+    private volatile AdminToken adminToken;
+
+    public AdminTokenProvider(@Value("${jwt.secret}") String jwtSecret,
+                              @Value("${interservice.token.validity:P30D}") Duration validity,
+                              @Value("${interservice.token.refresh-before:P1D}") Duration refreshBefore) {
+        this.jwtSecret = jwtSecret;
+        this.validityMillis = validity.toMillis();
+        this.refreshBeforeMillis = refreshBefore.toMillis();
+        this.adminToken = createAdminToken();
+    }
+
+    public String getToken() {
+        AdminToken token = adminToken;
+        if (token.expiresAt() - refreshBeforeMillis <= System.currentTimeMillis()) {
+            // background refresh missed the window, never hand out a token that is about to expire
+            token = refresh();
+        }
+        return token.value();
+    }
+
+    @Scheduled(fixedDelayString = "${interservice.token.refresh-check-interval:PT1M}")
+    public void refreshIfExpiring() {
+        if (adminToken.expiresAt() - refreshBeforeMillis <= System.currentTimeMillis()) {
+            refresh();
+            log.info("Inter-service admin token refreshed");
+        }
+    }
+
+    private AdminToken refresh() {
+        AdminToken token = createAdminToken();
+        adminToken = token;
+        return token;
+    }
+
+    private AdminToken createAdminToken() {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + validityMillis;
+        String value = Jwts.builder()
+                .setSubject("admin@ftn.com")
+                .claim("role", "ADMIN")
+                .claim("userId", "e40fcab5-d45b-4567-9d91-14e58178fea6")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(expiresAt))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+        return new AdminToken(value, expiresAt);
+    }
+
+    private record AdminToken(String value, long expiresAt) {
+    }
+
+}
@@ -2,7 +2,9 @@ package ftn.reservationservice.controllers;
 
 import ftn.reservationservice.domain.dtos.RequestForReservationCreateRequest;
 import ftn.reservationservice.domain.dtos.RequestForReservationStatusUpdateRequest;
+import ftn.reservationservice.domain.entities.RequestForReservationStatus;
 import ftn.reservationservice.services.RequestForReservationService;
+import ftn.reservationservice.utils.KeysetPagination;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
@@ -52,6 +54,26 @@ public class RequestForReservationController {
         return ResponseEntity.ok(requestForReservationService.getGuestReservationRequests());
     }
 
+    @GetMapping("/page/host")
+    @PreAuthorize("hasAuthority('HOST')")
+    public ResponseEntity<?> getHostReservationRequestsPage(@RequestParam(required = false) RequestForReservationStatus status,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(requestForReservationService.getHostReservationRequestsPage(status, dateFrom, dateTo, cursor, size));
+    }
+
+    @GetMapping("/page/guest")
+    @PreAuthorize("hasAuthority('GUEST')")
+    public ResponseEntity<?> getGuestReservationRequestsPage(@RequestParam(required = false) RequestForReservationStatus status,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(requestForReservationService.getGuestReservationRequestsPage(status, dateFrom, dateTo, cursor, size));
+    }
+
     @GetMapping("/host/{id}")
     @PreAuthorize("hasAuthority('HOST')")
     public ResponseEntity<?> getReservationRequestByIdHost(@PathVariable UUID id) {
@@ -1,12 +1,17 @@
 package ftn.reservationservice.controllers;
 
 import ftn.reservationservice.domain.dtos.RequestForReservationStatusUpdateRequest;
+import ftn.reservationservice.domain.entities.ReservationStatus;
+import ftn.reservationservice.services.ReservationExportService;
 import ftn.reservationservice.services.ReservationService;
+import ftn.reservationservice.utils.KeysetPagination;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -18,6 +23,8 @@ public class ReservationController {
 
     private final ReservationService reservationService;
 
+    private final ReservationExportService reservationExportService;
+
     @GetMapping("/canceled/count/{guestId}")
     @PreAuthorize("hasAuthority('HOST')")
     public ResponseEntity<?> countCanceledReservationsByGuest(@PathVariable UUID guestId) {
@@ -42,6 +49,54 @@ public class ReservationController {
         return ResponseEntity.ok(reservationService.getReservationsForLodge(lodgeId));
     }
 
+    @GetMapping("/page/host")
+    @PreAuthorize("hasAuthority('HOST')")
+    public ResponseEntity<?> getMyReservationsHostPage(@RequestParam(required = false) ReservationStatus status,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(reservationService.getMyReservationsHostPage(status, dateFrom, dateTo, cursor, size));
+    }
+
+    @GetMapping("/page/guest")
+    @PreAuthorize("hasAuthority('GUEST')")
+    public ResponseEntity<?> getMyReservationsGuestPage(@RequestParam(required = false) ReservationStatus status,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(reservationService.getMyReservationsGuestPage(status, dateFrom, dateTo, cursor, size));
+    }
+
+    @GetMapping("/page/lodge/{lodgeId}")
+    @PreAuthorize("hasAuthority('HOST')")
+    public ResponseEntity<?> getReservationsForLodgePage(@PathVariable UUID lodgeId,
+                                                         @RequestParam(required = false) ReservationStatus status,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(reservationService.getReservationsForLodgePage(lodgeId, status, dateFrom, dateTo, cursor, size));
+    }
+
+    @GetMapping(value = "/export/host", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('HOST')")
+    public ResponseEntity<StreamingResponseBody> exportMyReservationsHost() {
+        UUID hostId = reservationExportService.getLoggedInHostId();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> reservationExportService.exportByOwnerId(hostId, outputStream));
+    }
+
+    @GetMapping(value = "/export/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAllReservations() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reservationExportService::exportAll);
+    }
+
     @GetMapping("/host/{id}")
     @PreAuthorize("hasAuthority('HOST')")
     public ResponseEntity<?> getReservationByIdHost(@PathVariable UUID id) {
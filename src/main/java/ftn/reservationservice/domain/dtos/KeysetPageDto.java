@@ -0,0 +1,21 @@
+package ftn.reservationservice.domain.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDto<T> {
+
+    private List<T> content;
+
+    // null when there are no more pages
+    private String nextCursor;
+
+}
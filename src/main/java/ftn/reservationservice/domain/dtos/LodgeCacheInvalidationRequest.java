@@ -0,0 +1,19 @@
+package ftn.reservationservice.domain.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LodgeCacheInvalidationRequest implements Serializable {
+
+    private UUID lodgeId;
+
+}
@@ -0,0 +1,36 @@
+package ftn.reservationservice.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_created_at", columnList = "createdAt")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private NotificationType notificationType;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+}
@@ -10,7 +10,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "request_for_reservation")
+@Table(name = "request_for_reservation", indexes = {
+        @Index(name = "idx_request_for_reservation_lodge_status_dates", columnList = "lodgeId, status, dateFrom, dateTo"),
+        @Index(name = "idx_request_for_reservation_owner_date_from_id", columnList = "ownerId, dateFrom, id"),
+        @Index(name = "idx_request_for_reservation_guest_date_from_id", columnList = "guestId, dateFrom, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
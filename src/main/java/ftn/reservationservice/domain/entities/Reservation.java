@@ -10,7 +10,14 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "reservation")
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_owner_date_from_id", columnList = "ownerId, dateFrom, id"),
+        @Index(name = "idx_reservation_guest_date_from_id", columnList = "guestId, dateFrom, id"),
+        @Index(name = "idx_reservation_lodge_date_from_id", columnList = "lodgeId, dateFrom, id"),
+        @Index(name = "idx_reservation_guest_status", columnList = "guestId, status"),
+        @Index(name = "idx_reservation_guest_lodge", columnList = "guestId, lodgeId"),
+        @Index(name = "idx_reservation_guest_owner", columnList = "guestId, ownerId")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -10,11 +10,23 @@ import org.springframework.web.servlet.HandlerInterceptor;
 @AllArgsConstructor
 public class MetricsInterceptor implements HandlerInterceptor {
 
+    private static final String START_ATTRIBUTE = MetricsInterceptor.class.getName() + ".start";
+
     private MetricsService metricsService;
 
+    // Async requests pass through preHandle again on their completing dispatch, the first start time is kept
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
-        metricsService.trackHttpRequest(request, response);
+        long durationNanos = request.getAttribute(START_ATTRIBUTE) instanceof Long start ? System.nanoTime() - start : -1;
+        metricsService.trackHttpRequest(request, response, durationNanos);
     }
 
 }
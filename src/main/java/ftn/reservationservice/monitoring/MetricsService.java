@@ -1,51 +1,140 @@
 package ftn.reservationservice.monitoring;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.HandlerMapping;
 
-import java.util.HashSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class MetricsService {
 
+    private static final String UNMATCHED_URI = "UNMATCHED";
+    private static final String OTHER = "OTHER";
+
+    private static final Set<String> KNOWN_METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE");
+
     private final Counter httpRequestsCounter;
     private final Counter successfulHttpRequestsCounter;
     private final Counter failedHttpRequestsCounter;
-    private final Set<String> uniqueVisitors;
+    private final UniqueVisitorEstimator uniqueVisitorsLastHour;
+    private final UniqueVisitorEstimator uniqueVisitorsLastDay;
     private final MeterRegistry meterRegistry;
 
-    public MetricsService(MeterRegistry meterRegistry) {
+    // Meters are registered once per tag combination and looked up here afterwards, never through the registry
+    private final Map<RequestMeterKey, Timer> latencyTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> notFoundCounters = new ConcurrentHashMap<>();
+    private final Map<String, String> uriTags = new ConcurrentHashMap<>();
+    private final AtomicInteger uriTagCount = new AtomicInteger();
+    private final int maxUriTags;
+
+    private record RequestMeterKey(String uri, String method, String status) {
+    }
+
+    public MetricsService(MeterRegistry meterRegistry,
+                          @Value("${metrics.http.max-uri-tags:100}") int maxUriTags) {
         this.meterRegistry = meterRegistry;
+        this.maxUriTags = maxUriTags;
         this.httpRequestsCounter = Counter.builder("http.requests.total").description("Total number of HTTP requests").register(meterRegistry);
         this.successfulHttpRequestsCounter = Counter.builder("http.requests.success").description("Number of successful HTTP requests").register(meterRegistry);
         this.failedHttpRequestsCounter = Counter.builder("http.requests.failed").description("Number of failed HTTP requests").register(meterRegistry);
-        this.uniqueVisitors = new HashSet<>();
+        this.uniqueVisitorsLastHour = new UniqueVisitorEstimator(Duration.ofHours(1), 12, Clock.systemUTC());
+        this.uniqueVisitorsLastDay = new UniqueVisitorEstimator(Duration.ofHours(24), 24, Clock.systemUTC());
+        Gauge.builder("unique.visitors", uniqueVisitorsLastHour, UniqueVisitorEstimator::estimate)
+                .description("Estimated number of distinct visitors (address and User-Agent) in the window")
+                .tag("window", "1h")
+                .register(meterRegistry);
+        Gauge.builder("unique.visitors", uniqueVisitorsLastDay, UniqueVisitorEstimator::estimate)
+                .description("Estimated number of distinct visitors (address and User-Agent) in the window")
+                .tag("window", "24h")
+                .register(meterRegistry);
     }
 
-    public void trackHttpRequest(HttpServletRequest request, HttpServletResponse response) {
+    // durationNanos is negative when the start of the request wasn't recorded, the latency is skipped then
+    public void trackHttpRequest(HttpServletRequest request, HttpServletResponse response, long durationNanos) {
         httpRequestsCounter.increment();
 
-        if (response.getStatus() == HttpServletResponse.SC_OK) {
+        int status = response.getStatus();
+        String uri = uriTag(request);
+        if (status == HttpServletResponse.SC_OK) {
             successfulHttpRequestsCounter.increment();
-        } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
-            Counter.builder("http.requests.404")
-                    .description("Number of HTTP 404 requests")
-                    .tags(Tags.of("endpoint", request.getRequestURI()))
-                    .register(meterRegistry)
-                    .increment();
+        } else if (status == HttpServletResponse.SC_NOT_FOUND) {
+            notFoundCounters.computeIfAbsent(uri, this::registerNotFoundCounter).increment();
         } else {
             failedHttpRequestsCounter.increment();
         }
 
-        String visitorKey = request.getRemoteAddr() + "|" + request.getHeader("User-Agent");
-        if (uniqueVisitors.add(visitorKey)) {
-            meterRegistry.counter("unique.visitors").increment();
+        if (durationNanos >= 0) {
+            RequestMeterKey key = new RequestMeterKey(uri, methodTag(request), statusTag(status));
+            latencyTimers.computeIfAbsent(key, this::registerLatencyTimer).record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+
+        String remoteAddr = request.getRemoteAddr();
+        String userAgent = request.getHeader("User-Agent");
+        uniqueVisitorsLastHour.add(remoteAddr, userAgent);
+        uniqueVisitorsLastDay.add(remoteAddr, userAgent);
+    }
+
+    // The matched handler pattern keeps ids out of the tag, the cap guards against unbounded growth anyway
+    private String uriTag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern instanceof String value ? value : UNMATCHED_URI;
+        String tag = uriTags.get(uri);
+        if (tag == null) {
+            // A slot is claimed before the mapping is added, a null result leaves the uri out once all are taken
+            tag = uriTags.computeIfAbsent(uri, newUri -> {
+                if (uriTagCount.incrementAndGet() <= maxUriTags) {
+                    return newUri;
+                }
+                uriTagCount.decrementAndGet();
+                return null;
+            });
         }
+        return tag != null ? tag : OTHER;
+    }
+
+    private static String methodTag(HttpServletRequest request) {
+        String method = request.getMethod();
+        return KNOWN_METHODS.contains(method) ? method : OTHER;
+    }
+
+    private static String statusTag(int status) {
+        return switch (status / 100) {
+            case 1 -> "1xx";
+            case 2 -> "2xx";
+            case 3 -> "3xx";
+            case 4 -> "4xx";
+            case 5 -> "5xx";
+            default -> OTHER;
+        };
+    }
+
+    private Counter registerNotFoundCounter(String uri) {
+        return Counter.builder("http.requests.404")
+                .description("Number of HTTP 404 requests")
+                .tags(Tags.of("endpoint", uri))
+                .register(meterRegistry);
+    }
+
+    private Timer registerLatencyTimer(RequestMeterKey key) {
+        return Timer.builder("http.requests.latency")
+                .description("HTTP request latency by matched endpoint pattern")
+                .tags(Tags.of("uri", key.uri(), "method", key.method(), "status", key.status()))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
 }
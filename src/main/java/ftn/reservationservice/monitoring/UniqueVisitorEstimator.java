@@ -0,0 +1,123 @@
+package ftn.reservationservice.monitoring;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Sliding-window distinct count with fixed memory. The window is split into buckets, each holding a HyperLogLog
+// sketch of 2^PRECISION registers (about 1.6% standard error). Adding is lock-free: registers only ever grow through
+// CAS, and an expired bucket is swapped for an empty one the first time its slot is reused. An estimate merges the
+// buckets still inside the window, so the window slides with bucket granularity.
+public class UniqueVisitorEstimator {
+
+    private static final int PRECISION = 12;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final Clock clock;
+    private final long bucketMillis;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public UniqueVisitorEstimator(Duration window, int bucketCount, Clock clock) {
+        this.clock = clock;
+        this.bucketMillis = window.toMillis() / bucketCount;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    public void add(String first, String second) {
+        long hash = hash(first, second);
+        int register = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        currentBucket().offer(register, rank);
+    }
+
+    public long estimate() {
+        long epoch = currentEpoch();
+        int[] merged = new int[REGISTERS];
+        for (int slot = 0; slot < buckets.length(); slot++) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && epoch - bucket.epoch < buckets.length() && bucket.epoch <= epoch) {
+                for (int register = 0; register < REGISTERS; register++) {
+                    merged[register] = Math.max(merged[register], bucket.registers.get(register));
+                }
+            }
+        }
+
+        double sum = 0;
+        int zeros = 0;
+        for (int value : merged) {
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private Bucket currentBucket() {
+        long epoch = currentEpoch();
+        int slot = (int) Math.floorMod(epoch, (long) buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.epoch >= epoch) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private long currentEpoch() {
+        return clock.millis() / bucketMillis;
+    }
+
+    // 64-bit FNV-1a over both strings and a separator, finished with the MurmurHash3 mixer so every bit is usable
+    private static long hash(String first, String second) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, first);
+        hash = (hash ^ '|') * 0x100000001b3L;
+        hash = fnv(hash, second);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long fnv(long hash, String value) {
+        if (value == null) {
+            return hash;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Bucket {
+
+        private final long epoch;
+        private final AtomicIntegerArray registers = new AtomicIntegerArray(REGISTERS);
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+
+        private void offer(int register, int rank) {
+            int current = registers.get(register);
+            while (rank > current && !registers.compareAndSet(register, current, rank)) {
+                current = registers.get(register);
+            }
+        }
+
+    }
+
+}
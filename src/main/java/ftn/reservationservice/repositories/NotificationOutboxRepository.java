@@ -0,0 +1,19 @@
+package ftn.reservationservice.repositories;
+
+import ftn.reservationservice.domain.entities.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, UUID> {
+
+    // SKIP LOCKED lets several service instances drain the outbox without publishing the same row twice
+    @Query(value = "SELECT * FROM notification_outbox ORDER BY created_at LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> findBatchForRelay(@Param("batchSize") int batchSize);
+
+}
@@ -0,0 +1,35 @@
+package ftn.reservationservice.repositories;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import ftn.reservationservice.domain.dtos.RequestForReservationDto;
+import ftn.reservationservice.domain.entities.QRequestForReservation;
+import ftn.reservationservice.utils.KeysetPagination;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class RequestForReservationPageRepositoryImpl implements RequestForReservationPageRepository {
+
+    private final EntityManager entityManager;
+
+    // see ReservationPageRepositoryImpl for the templates
+    @Override
+    public List<RequestForReservationDto> findDtoPage(Predicate predicate, int limit) {
+        QRequestForReservation request = QRequestForReservation.requestForReservation;
+        return new JPAQuery<>(entityManager, JPQLTemplates.DEFAULT)
+                .select(Projections.constructor(RequestForReservationDto.class,
+                        request.id, request.lodgeId, request.guestId, request.ownerId, request.price,
+                        request.dateFrom, request.dateTo, request.numberOfGuests, request.status))
+                .from(request)
+                .where(predicate)
+                .orderBy(KeysetPagination.order(request.dateFrom, request.id))
+                .limit(limit)
+                .fetch();
+    }
+
+}
@@ -1,6 +1,8 @@
 package ftn.reservationservice.repositories;
 
+import ftn.reservationservice.domain.dtos.RequestForReservationDto;
 import ftn.reservationservice.domain.entities.RequestForReservation;
+import ftn.reservationservice.domain.entities.RequestForReservationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
@@ -9,16 +11,66 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface RequestForReservationRepository extends JpaRepository<RequestForReservation, UUID>, QuerydslPredicateExecutor<RequestForReservation> {
+public interface RequestForReservationRepository extends JpaRepository<RequestForReservation, UUID>, QuerydslPredicateExecutor<RequestForReservation>,
+        RequestForReservationPageRepository {
 
     List<RequestForReservation> findByLodgeId(UUID lodgeId);
 
-    List<RequestForReservation> findByOwnerId(UUID ownerId);
+    // Read endpoints select straight into the DTO, nothing is hydrated into or snapshotted by the persistence context
+    String SELECT_DTO = "SELECT new ftn.reservationservice.domain.dtos.RequestForReservationDto(" +
+            "r.id, r.lodgeId, r.guestId, r.ownerId, r.price, r.dateFrom, r.dateTo, r.numberOfGuests, r.status) " +
+            "FROM RequestForReservation r ";
 
-    List<RequestForReservation> findByGuestId(UUID guestId);
+    @Query(SELECT_DTO + "WHERE r.ownerId = :ownerId")
+    List<RequestForReservationDto> findDtosByOwnerId(@Param("ownerId") UUID ownerId);
+
+    @Query(SELECT_DTO + "WHERE r.guestId = :guestId")
+    List<RequestForReservationDto> findDtosByGuestId(@Param("guestId") UUID guestId);
+
+    @Query(SELECT_DTO + "WHERE r.id = :id")
+    Optional<RequestForReservationDto> findDtoById(@Param("id") UUID id);
+
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
+            "FROM RequestForReservation r " +
+            "WHERE r.lodgeId = :lodgeId " +
+            "AND r.status = :status " +
+            "AND r.dateFrom < :dateTo " +
+            "AND r.dateTo > :dateFrom")
+    boolean existsByLodgeIdAndStatusAndDateRangeOverlap(
+            @Param("lodgeId") UUID lodgeId,
+            @Param("status") RequestForReservationStatus status,
+            @Param("dateFrom") LocalDateTime dateFrom,
+            @Param("dateTo") LocalDateTime dateTo);
+
+    // Denies every pending request overlapping the range (bounds inclusive) in one statement and returns their guests
+    @Query(value = "UPDATE request_for_reservation SET status = 'DENIED' " +
+            "WHERE lodge_id = :lodgeId " +
+            "AND status = 'WAITING_FOR_RESPONSE' " +
+            "AND date_from <= :dateTo " +
+            "AND date_to >= :dateFrom " +
+            "RETURNING guest_id", nativeQuery = true)
+    List<UUID> denyWaitingRequestsWithOverlappingDateRange(
+            @Param("lodgeId") UUID lodgeId,
+            @Param("dateFrom") LocalDateTime dateFrom,
+            @Param("dateTo") LocalDateTime dateTo);
+
+    // Denies pending requests competing with a just approved one for the same dates and returns their guests
+    @Query(value = "UPDATE request_for_reservation SET status = 'DENIED' " +
+            "WHERE lodge_id = :lodgeId " +
+            "AND status = 'WAITING_FOR_RESPONSE' " +
+            "AND id <> :approvedRequestId " +
+            "AND date_from < :dateTo " +
+            "AND date_to > :dateFrom " +
+            "RETURNING guest_id", nativeQuery = true)
+    List<UUID> denyWaitingRequestsCompetingWithApproved(
+            @Param("lodgeId") UUID lodgeId,
+            @Param("approvedRequestId") UUID approvedRequestId,
+            @Param("dateFrom") LocalDateTime dateFrom,
+            @Param("dateTo") LocalDateTime dateTo);
 
     @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
             "FROM RequestForReservation r " +
@@ -0,0 +1,13 @@
+package ftn.reservationservice.repositories;
+
+import com.querydsl.core.types.Predicate;
+import ftn.reservationservice.domain.dtos.ReservationDto;
+
+import java.util.List;
+
+public interface ReservationPageRepository {
+
+    // One keyset page in KeysetPagination order, selected straight into the DTO like SELECT_DTO
+    List<ReservationDto> findDtoPage(Predicate predicate, int limit);
+
+}
@@ -0,0 +1,36 @@
+package ftn.reservationservice.repositories;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import ftn.reservationservice.domain.dtos.ReservationDto;
+import ftn.reservationservice.domain.entities.QReservation;
+import ftn.reservationservice.utils.KeysetPagination;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ReservationPageRepositoryImpl implements ReservationPageRepository {
+
+    private final EntityManager entityManager;
+
+    // Plain JPQL templates build the DTO from the selected columns in Querydsl itself, the Hibernate ones rely on
+    // result transformers Hibernate 6 no longer supports
+    @Override
+    public List<ReservationDto> findDtoPage(Predicate predicate, int limit) {
+        QReservation reservation = QReservation.reservation;
+        return new JPAQuery<>(entityManager, JPQLTemplates.DEFAULT)
+                .select(Projections.constructor(ReservationDto.class,
+                        reservation.id, reservation.lodgeId, reservation.guestId, reservation.ownerId, reservation.price,
+                        reservation.dateFrom, reservation.dateTo, reservation.numberOfGuests, reservation.status))
+                .from(reservation)
+                .where(predicate)
+                .orderBy(KeysetPagination.order(reservation.dateFrom, reservation.id))
+                .limit(limit)
+                .fetch();
+    }
+
+}
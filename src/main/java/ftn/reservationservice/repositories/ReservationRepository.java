@@ -1,33 +1,60 @@
 package ftn.reservationservice.repositories;
 
-import ftn.reservationservice.domain.entities.RequestForReservation;
+import ftn.reservationservice.domain.dtos.ReservationDto;
 import ftn.reservationservice.domain.entities.Reservation;
 import ftn.reservationservice.domain.entities.ReservationStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, UUID>, QuerydslPredicateExecutor<Reservation> {
+public interface ReservationRepository extends JpaRepository<Reservation, UUID>, QuerydslPredicateExecutor<Reservation>, ReservationPageRepository {
 
     List<Reservation> findByStatusAndLodgeId(ReservationStatus status, UUID lodgeId);
 
     long countByGuestIdAndStatus(UUID guestId, ReservationStatus status);
 
-    List<Reservation> findByOwnerId(UUID ownerId);
+    // Read endpoints select straight into the DTO, nothing is hydrated into or snapshotted by the persistence context
+    String SELECT_DTO = "SELECT new ftn.reservationservice.domain.dtos.ReservationDto(" +
+            "r.id, r.lodgeId, r.guestId, r.ownerId, r.price, r.dateFrom, r.dateTo, r.numberOfGuests, r.status) " +
+            "FROM Reservation r ";
+
+    @Query(SELECT_DTO + "WHERE r.ownerId = :ownerId")
+    List<ReservationDto> findDtosByOwnerId(@Param("ownerId") UUID ownerId);
+
+    @Query(SELECT_DTO + "WHERE r.guestId = :guestId")
+    List<ReservationDto> findDtosByGuestId(@Param("guestId") UUID guestId);
+
+    @Query(SELECT_DTO + "WHERE r.lodgeId = :lodgeId")
+    List<ReservationDto> findDtosByLodgeId(@Param("lodgeId") UUID lodgeId);
 
-    List<Reservation> findByGuestId(UUID guestId);
+    @Query(SELECT_DTO + "WHERE r.id = :id")
+    Optional<ReservationDto> findDtoById(@Param("id") UUID id);
 
-    List<Reservation> findByLodgeId(UUID lodgeId);
+    // Fetch size makes the PostgreSQL driver use a cursor instead of buffering the whole result, needs an open transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    // ordered like idx_reservation_owner_date_from_id, so the export is stable without a sort step
+    Stream<Reservation> streamByOwnerIdOrderByDateFromAscIdAsc(UUID ownerId);
 
-    @Query("SELECT r FROM Reservation r WHERE r.guestId = :guestId AND r.status = 'ACTIVE' AND r.dateFrom > :futureDate")
-    List<Reservation> findActiveReservationsByGuestIdAndFutureDate(@Param("guestId") UUID guestId, @Param("futureDate") LocalDateTime futureDate);
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Reservation> streamAllBy();
+
+    @Query(SELECT_DTO + "WHERE r.guestId = :guestId AND r.status = 'ACTIVE' AND r.dateFrom > :futureDate")
+    List<ReservationDto> findActiveReservationsByGuestIdAndFutureDate(@Param("guestId") UUID guestId, @Param("futureDate") LocalDateTime futureDate);
 
     boolean existsByGuestIdAndLodgeId(UUID guestId, UUID lodgeId);
 
@@ -43,6 +70,27 @@ public interface ReservationRepository extends JpaRepository<Reservation, UUID>,
             @Param("dateFrom") LocalDateTime dateFrom,
             @Param("dateTo") LocalDateTime dateTo);
 
+    // Same overlap semantics as the exclusion constraint, the literal status lets the planner use idx_reservation_active_lodge_dates
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
+            "FROM Reservation r " +
+            "WHERE r.lodgeId = :lodgeId " +
+            "AND r.status = 'ACTIVE' " +
+            "AND r.dateFrom < :dateTo " +
+            "AND r.dateTo > :dateFrom")
+    boolean existsActiveByLodgeIdAndDateRangeOverlap(
+            @Param("lodgeId") UUID lodgeId,
+            @Param("dateFrom") LocalDateTime dateFrom,
+            @Param("dateTo") LocalDateTime dateTo);
+
     void deleteAllByOwnerId(UUID ownerId);
 
+    // Relies on the reservation_active_no_overlap exclusion constraint, returns 0 when the dates are already taken.
+    @Modifying
+    @Query(value = "INSERT INTO reservation (id, lodge_id, guest_id, owner_id, request_for_reservation_id, price, date_from, date_to, number_of_guests, status) " +
+            "VALUES (:#{#reservation.id}, :#{#reservation.lodgeId}, :#{#reservation.guestId}, :#{#reservation.ownerId}, " +
+            ":#{#reservation.requestForReservationId}, :#{#reservation.price}, :#{#reservation.dateFrom}, :#{#reservation.dateTo}, " +
+            ":#{#reservation.numberOfGuests}, :#{#reservation.status.name()}) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfNotOverlapping(@Param("reservation") Reservation reservation);
+
 }
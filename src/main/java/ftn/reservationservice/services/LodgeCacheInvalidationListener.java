@@ -0,0 +1,42 @@
+package ftn.reservationservice.services;
+
+import ftn.reservationservice.config.cache.CacheConfig;
+import ftn.reservationservice.domain.dtos.LodgeCacheInvalidationRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@Slf4j
+@Profile("!test")
+@RequiredArgsConstructor
+public class LodgeCacheInvalidationListener {
+
+    private static final List<String> LODGE_CACHES = List.of(CacheConfig.LODGES, CacheConfig.LODGE_AVAILABILITY_PERIODS);
+
+    private final CacheManager cacheManager;
+
+    // Sent by hotels-service whenever a lodge or its availability periods change, without lodgeId the whole cache is dropped
+    @RabbitListener(queues = "lodgeCacheInvalidationQueue")
+    public void invalidate(LodgeCacheInvalidationRequest request) {
+        log.debug("Invalidating cached lodge data for lodge {}", request.getLodgeId());
+        for (String cacheName : LODGE_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            if (request.getLodgeId() == null) {
+                cache.invalidate();
+            } else {
+                cache.evict(request.getLodgeId());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package ftn.reservationservice.services;
+
+import ftn.reservationservice.domain.dtos.UserDto;
+import ftn.reservationservice.exception.exceptions.NotFoundException;
+import ftn.reservationservice.utils.AuthUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.UUID;
+
+@Service
+public class LoggedInUserService {
+
+    private static final String LOGGED_IN_USER_ATTRIBUTE = LoggedInUserService.class.getName() + ".user";
+
+    private final RestService restService;
+
+    private final boolean readFromToken;
+
+    public LoggedInUserService(RestService restService,
+                               @Value("${user.resolution.read-from-token:false}") boolean readFromToken) {
+        this.restService = restService;
+        this.readFromToken = readFromToken;
+    }
+
+    // Verified against user-service, memoized for the current HTTP request on top of the shared users cache
+    public UserDto getLoggedInUser() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            Object cachedUser = requestAttributes.getAttribute(LOGGED_IN_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cachedUser instanceof UserDto user) {
+                return user;
+            }
+        }
+
+        UUID id = AuthUtils.getLoggedUserId();
+        UserDto user = restService.getUserById(id);
+        if (user == null) {
+            throw new NotFoundException("User doesn't exist");
+        }
+
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(LOGGED_IN_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    // Read endpoints only need id and role, which are already in the verified JWT
+    public UserDto getLoggedInUserForRead() {
+        if (!readFromToken) {
+            return getLoggedInUser();
+        }
+        return UserDto.builder()
+                .id(AuthUtils.getLoggedUserId())
+                .username(AuthUtils.getLoggedUsername())
+                .role(AuthUtils.getLoggedUserRole())
+                .build();
+    }
+
+}
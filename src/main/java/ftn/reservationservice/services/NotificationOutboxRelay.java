@@ -0,0 +1,80 @@
+package ftn.reservationservice.services;
+
+import ftn.reservationservice.domain.dtos.NotificationRequest;
+import ftn.reservationservice.domain.entities.NotificationOutbox;
+import ftn.reservationservice.repositories.NotificationOutboxRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+// Drains notification_outbox to notificationQueue. Rows are deleted only after the broker confirmed the whole batch,
+// so delivery is at-least-once and a failed batch is retried on the next run.
+@Service
+@Slf4j
+@Profile("!test")
+public class NotificationOutboxRelay {
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final int batchSize;
+
+    private final long confirmTimeoutMillis;
+
+    private final Timer publishTimer;
+
+    private final DistributionSummary batchSizeSummary;
+
+    public NotificationOutboxRelay(NotificationOutboxRepository notificationOutboxRepository,
+                                   RabbitTemplate rabbitTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${notification.outbox.batch-size:100}") int batchSize,
+                                   @Value("${notification.outbox.confirm-timeout:PT5S}") Duration confirmTimeout) {
+        this.notificationOutboxRepository = notificationOutboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMillis = confirmTimeout.toMillis();
+        this.publishTimer = Timer.builder("notification.publish")
+                .description("Time to publish a notification batch and receive the broker confirms")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("notification.publish.batch.size")
+                .description("Number of notifications published per batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval:PT1S}")
+    @Transactional
+    public void relay() {
+        List<NotificationOutbox> notifications = notificationOutboxRepository.findBatchForRelay(batchSize);
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        publishTimer.record(() -> rabbitTemplate.invoke(operations -> {
+            for (NotificationOutbox notification : notifications) {
+                operations.convertAndSend("notificationQueue",
+                        new NotificationRequest(notification.getUserId(), notification.getNotificationType()));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+            return null;
+        }));
+        batchSizeSummary.record(notifications.size());
+
+        notificationOutboxRepository.deleteAllInBatch(notifications);
+        log.debug("Relayed {} notifications from outbox", notifications.size());
+    }
+
+}
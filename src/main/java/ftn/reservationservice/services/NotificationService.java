@@ -1,21 +1,48 @@
 package ftn.reservationservice.services;
 
 
-import ftn.reservationservice.domain.dtos.NotificationRequest;
+import ftn.reservationservice.domain.entities.NotificationOutbox;
 import ftn.reservationservice.domain.entities.NotificationType;
+import ftn.reservationservice.repositories.NotificationOutboxRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
-    private final AmqpTemplate rabbitTemplate;
+    private final NotificationOutboxRepository notificationOutboxRepository;
 
+    // Written in the caller's transaction, NotificationOutboxRelay publishes it to notificationQueue after commit
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendNotification(String userId, NotificationType notificationType){
-        NotificationRequest notificationRequest = new NotificationRequest(userId, notificationType);
-        rabbitTemplate.convertAndSend("notificationQueue", notificationRequest);
+        NotificationOutbox notification = NotificationOutbox.builder()
+                .userId(userId)
+                .notificationType(notificationType)
+                .createdAt(LocalDateTime.now())
+                .build();
+        notificationOutboxRepository.save(notification);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sendNotifications(Collection<String> userIds, NotificationType notificationType) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<NotificationOutbox> notifications = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            notifications.add(NotificationOutbox.builder()
+                    .userId(userId)
+                    .notificationType(notificationType)
+                    .createdAt(createdAt)
+                    .build());
+        }
+        notificationOutboxRepository.saveAll(notifications);
     }
 
 }
@@ -0,0 +1,114 @@
+package ftn.reservationservice.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+// Runs independent remote lookups concurrently, carrying the security, tracing and request context over to the worker threads
+@Service
+public class RemoteCallExecutor {
+
+    private final AsyncTaskExecutor executor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public RemoteCallExecutor(MeterRegistry meterRegistry,
+                              Environment environment,
+                              @Value("${remote-call.executor.core-size:16}") int coreSize,
+                              @Value("${remote-call.executor.max-size:64}") int maxSize,
+                              @Value("${remote-call.executor.queue-capacity:256}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        ContextPropagatingTaskDecorator contextPropagatingTaskDecorator = new ContextPropagatingTaskDecorator();
+        TaskDecorator taskDecorator = runnable -> withRequestAttributes(new DelegatingSecurityContextRunnable(
+                contextPropagatingTaskDecorator.decorate(runnable), SecurityContextHolder.getContext()));
+
+        // spring.threads.virtual.enabled is ignored below Java 21, like Spring Boot's own executors do,
+        // SimpleAsyncTaskExecutor.setVirtualThreads would otherwise fail at startup on the Java 17 build
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor virtualThreadExecutor = new SimpleAsyncTaskExecutor("remote-call-");
+            virtualThreadExecutor.setVirtualThreads(true);
+            virtualThreadExecutor.setTaskDecorator(taskDecorator);
+            executor = virtualThreadExecutor;
+            return;
+        }
+
+        ThreadPoolTaskExecutor threadPoolExecutor = new ThreadPoolTaskExecutor();
+        threadPoolExecutor.setThreadNamePrefix("remote-call-");
+        threadPoolExecutor.setCorePoolSize(coreSize);
+        threadPoolExecutor.setMaxPoolSize(maxSize);
+        threadPoolExecutor.setQueueCapacity(queueCapacity);
+        // when saturated the lookup simply runs on the request thread, as it did before
+        threadPoolExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        threadPoolExecutor.setTaskDecorator(taskDecorator);
+        threadPoolExecutor.initialize();
+        executor = threadPoolExecutor;
+    }
+
+    // Request-scoped memos such as the logged in user must be visible to the lookups. The previous attributes are restored
+    // because a saturated pool runs the task on the request thread itself.
+    private static Runnable withRequestAttributes(Runnable runnable) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return () -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                runnable.run();
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(String callName, Supplier<T> supplier) {
+        Timer timer = timers.computeIfAbsent(callName, name -> Timer.builder("reservation.remote.call")
+                .description("Latency of remote lookups issued by the reservation workflows")
+                .tag("call", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        return CompletableFuture.supplyAsync(() -> timer.record(supplier), executor);
+    }
+
+    // Rethrows the original NotFoundException/InternalException instead of the CompletionException wrapper
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ThreadPoolTaskExecutor threadPoolExecutor) {
+            threadPoolExecutor.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtualThreadExecutor) {
+            virtualThreadExecutor.close();
+        }
+    }
+
+}
@@ -1,28 +1,35 @@
 package ftn.reservationservice.services;
 
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
 import ftn.reservationservice.domain.dtos.*;
 import ftn.reservationservice.domain.entities.NotificationType;
+import ftn.reservationservice.domain.entities.QRequestForReservation;
 import ftn.reservationservice.domain.entities.RequestForReservation;
 import ftn.reservationservice.domain.entities.RequestForReservationStatus;
-import ftn.reservationservice.domain.entities.Reservation;
 import ftn.reservationservice.domain.mappers.RequestForReservationMapper;
 import ftn.reservationservice.exception.exceptions.BadRequestException;
 import ftn.reservationservice.exception.exceptions.ForbiddenException;
 import ftn.reservationservice.exception.exceptions.NotFoundException;
 import ftn.reservationservice.repositories.RequestForReservationRepository;
-import ftn.reservationservice.utils.AuthUtils;
+import ftn.reservationservice.utils.KeysetPagination;
 //import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static ftn.reservationservice.services.WorkflowStageObserver.CREATE;
+import static ftn.reservationservice.services.WorkflowStageObserver.UPDATE;
 
 @Service
 @Transactional
@@ -31,43 +38,52 @@ public class RequestForReservationService {
 
     private final RestService restService;
 
+    private final LoggedInUserService loggedInUserService;
+
     private final RequestForReservationRepository requestForReservationRepository;
 
     private final ReservationService reservationService;
 
     private final NotificationService notificationService;
 
+    private final RemoteCallExecutor remoteCallExecutor;
+
+    private final WorkflowStageObserver stages;
+
     public RequestForReservationDto create(RequestForReservationCreateRequest requestForReservationCreateRequest) {
         RequestForReservation request = RequestForReservationMapper.INSTANCE.fromCreateRequest(requestForReservationCreateRequest);
-        UserDto guest = getLoggedInUser();
+        CompletableFuture<UserDto> guestFuture = remoteCallExecutor.supplyAsync("getLoggedInUser",
+                () -> stages.observe(CREATE, "getLoggedInUser", loggedInUserService::getLoggedInUser));
+        CompletableFuture<LodgeDto> lodgeFuture = remoteCallExecutor.supplyAsync("getLodge",
+                () -> stages.observe(CREATE, "getLodge", () -> getLodge(request.getLodgeId())));
+        CompletableFuture<List<LodgeAvailabilityPeriodDto>> availabilityPeriodsFuture = remoteCallExecutor.supplyAsync("getLodgeAvailabilityPeriods",
+                () -> stages.observe(CREATE, "getLodgeAvailabilityPeriods", () -> getLodgeAvailabilityPeriods(request.getLodgeId())));
+
+        // joined in the original call order so the reported error stays the same as with sequential calls
+        UserDto guest = RemoteCallExecutor.join(guestFuture);
         checkLoggedInUserIsGuest(guest);
-        LodgeDto lodge = getLodge(request.getLodgeId());
-        List<LodgeAvailabilityPeriodDto> availabilityPeriods = getLodgeAvailabilityPeriods(request.getLodgeId());
+        LodgeDto lodge = RemoteCallExecutor.join(lodgeFuture);
+        List<LodgeAvailabilityPeriodDto> availabilityPeriods = RemoteCallExecutor.join(availabilityPeriodsFuture);
 
-        createChecks(request, lodge, availabilityPeriods);
+        stages.observe(CREATE, "createChecks", () -> createChecks(request, lodge, availabilityPeriods));
 
         request.setGuestId(guest.getId());
         request.setOwnerId(lodge.getOwnerId());
-        double calculatedPrice = calculatePrice(request, availabilityPeriods);
+        double calculatedPrice = stages.observe(CREATE, "calculatePrice", () -> calculatePrice(request, availabilityPeriods));
         request.setPrice(calculatedPrice);
 
-        notificationService.sendNotification(lodge.getOwnerId().toString(), NotificationType.RESERVATION_REQUEST);
-
-        RequestForReservation createdRequest = requestForReservationRepository.save(request);
-        requestAutomaticApproval(createdRequest, lodge, guest);
+        // Ids are generated in the app and inserts are batched, so without the flushes the writes would only go out at
+        // commit (or with the next native query) and the save and sendNotification stages wouldn't time them
+        RequestForReservation createdRequest = stages.observe(CREATE, "save", () -> requestForReservationRepository.saveAndFlush(request));
+        stages.observe(CREATE, "sendNotification", () -> {
+            notificationService.sendNotification(lodge.getOwnerId().toString(), NotificationType.RESERVATION_REQUEST);
+            requestForReservationRepository.flush();
+        });
+        stages.observe(CREATE, "automaticApproval", () -> requestAutomaticApproval(createdRequest, lodge, guest));
 
         return RequestForReservationMapper.INSTANCE.toDto(createdRequest);
     }
 
-    private UserDto getLoggedInUser() {
-        UUID id = AuthUtils.getLoggedUserId();
-        UserDto user = restService.getUserById(id);
-        if (user == null) {
-            throw new NotFoundException("User doesn't exist");
-        }
-        return user;
-    }
-
     private LodgeDto getLodge(UUID lodgeId) {
         LodgeDto lodge = restService.getLodgeById(lodgeId);
         if (lodge == null) {
@@ -135,33 +151,20 @@ public class RequestForReservationService {
     }
 
     private void checkForExistingRequestForReservationWithOverlappingDateRange(RequestForReservation request) {
-        List<RequestForReservation> requestsForReservation = getRequestsForReservationForLodge(request.getLodgeId());
-        for (RequestForReservation existingRequest : requestsForReservation) {
-            if (existingRequest.getStatus() == RequestForReservationStatus.APPROVED) {          // if existing request is approved check if it is overlapping with new request
-                if (existingRequest.getDateTo().isAfter(request.getDateFrom())
-                        && existingRequest.getDateFrom().isBefore(request.getDateTo())) {
-                    throw new BadRequestException("There is approved request with overlapping dates with this one.");
-                }
-            }
+        boolean approvedRequestExists = requestForReservationRepository.existsByLodgeIdAndStatusAndDateRangeOverlap(
+                request.getLodgeId(), RequestForReservationStatus.APPROVED, request.getDateFrom(), request.getDateTo());
+        if (approvedRequestExists) {
+            throw new BadRequestException("There is approved request with overlapping dates with this one.");
         }
-
-    }
-
-    public List<RequestForReservation> getRequestsForReservationForLodge(UUID lodgeId) {
-        return requestForReservationRepository.findByLodgeId(lodgeId);
     }
 
     private void checkForExistingReservationWithOverlappingDateRange(RequestForReservation request) {
-        List<Reservation> activeReservations = reservationService.getActiveReservationsForLodge(request.getLodgeId());
-        for (Reservation existingReservation : activeReservations) {
-            if (existingReservation.getDateTo().isAfter(request.getDateFrom())
-                    && existingReservation.getDateFrom().isBefore(request.getDateTo())) {
-                throw new BadRequestException("There is active reservation for this lodge with overlapping dates with this one.");
-            }
+        if (reservationService.hasActiveReservationWithOverlappingDateRange(request.getLodgeId(), request.getDateFrom(), request.getDateTo())) {
+            throw new BadRequestException("There is active reservation for this lodge with overlapping dates with this one.");
         }
     }
 
-    private double calculatePrice(RequestForReservation request, List<LodgeAvailabilityPeriodDto> availabilityPeriods) {
+    double calculatePrice(RequestForReservation request, List<LodgeAvailabilityPeriodDto> availabilityPeriods) {
         LodgeAvailabilityPeriodDto availabilityPeriod = getLodgeAvailabilityPeriodCompatibleWithRequest(request, availabilityPeriods);
         int numberOfDays = calculateDaysBetween(request.getDateFrom(), request.getDateTo());
         if (availabilityPeriod.getPriceType().equals("PER_GUEST")) {
@@ -173,7 +176,7 @@ public class RequestForReservationService {
         return 0.0;
     }
 
-    private int calculateDaysBetween(LocalDateTime start, LocalDateTime end) {
+    int calculateDaysBetween(LocalDateTime start, LocalDateTime end) {
         long daysBetween = ChronoUnit.DAYS.between(start, end);
 
         // Calculate hours and minutes difference
@@ -202,11 +205,12 @@ public class RequestForReservationService {
         }
         reservationService.createReservation(request);
         request.setStatus(RequestForReservationStatus.APPROVED);
+        denyWaitingRequestsCompetingWithApproved(request);
         notificationService.sendNotification(guest.getId().toString(), NotificationType.RESERVATION_RESPONSE_ACCEPT);
     }
 
     public void delete(UUID id) {
-        UserDto guest = getLoggedInUser();
+        UserDto guest = loggedInUserService.getLoggedInUser();
         checkLoggedInUserIsGuest(guest);
         RequestForReservation requestForReservation = getRequestForReservation(id);
         checkIfGuestMadeRequestForReservation(guest, requestForReservation);
@@ -232,22 +236,28 @@ public class RequestForReservationService {
 
     @Transactional(noRollbackFor = BadRequestException.class)
     public RequestForReservationDto update(UUID id, RequestForReservationStatusUpdateRequest updateRequest) {
-        RequestForReservation request = getRequestForReservation(id);
+        RequestForReservation request = stages.observe(UPDATE, "getRequestForReservation", () -> getRequestForReservation(id));
         checkIfRequestForReservationStatusCanBeUpdated(request);
-        UserDto owner = getLoggedInUser();
-        LodgeDto lodge = getLodge(request.getLodgeId());
-        List<LodgeAvailabilityPeriodDto> availabilityPeriods = getLodgeAvailabilityPeriods(request.getLodgeId());
-        checkIfLoggedInUserIsLodgeOwner(owner, lodge);
-        checkIfApprovalTypeForLodgeIsManual(lodge);
-        checkIfThereIsLodgeAvailabilityPeriodIsntDeleted(request, availabilityPeriods);
-        RequestForReservationMapper.INSTANCE.update(request, updateRequest);
-        checkIfRequestForReservationStatusIsValidAfterUpdate(request);
-        RequestForReservation updatedRequest = requestForReservationRepository.save(request);
+        UserDto owner = stages.observe(UPDATE, "getLoggedInUser", loggedInUserService::getLoggedInUser);
+        LodgeDto lodge = stages.observe(UPDATE, "getLodge", () -> getLodge(request.getLodgeId()));
+        List<LodgeAvailabilityPeriodDto> availabilityPeriods = stages.observe(UPDATE, "getLodgeAvailabilityPeriods",
+                () -> getLodgeAvailabilityPeriods(request.getLodgeId()));
+        stages.observe(UPDATE, "updateChecks", () -> {
+            checkIfLoggedInUserIsLodgeOwner(owner, lodge);
+            checkIfApprovalTypeForLodgeIsManual(lodge);
+            checkIfThereIsLodgeAvailabilityPeriodIsntDeleted(request, availabilityPeriods);
+            RequestForReservationMapper.INSTANCE.update(request, updateRequest);
+            checkIfRequestForReservationStatusIsValidAfterUpdate(request);
+        });
+        RequestForReservation updatedRequest = stages.observe(UPDATE, "save", () -> requestForReservationRepository.saveAndFlush(request));
         if (updatedRequest.getStatus() == RequestForReservationStatus.APPROVED) {
-            requestForReservationApproved(updatedRequest);
+            stages.observe(UPDATE, "approve", () -> requestForReservationApproved(updatedRequest));
         }
         else {      // RequestForReservationStatus.DENIED
-            requestForReservationDenied(updatedRequest.getGuestId());
+            stages.observe(UPDATE, "sendNotification", () -> {
+                requestForReservationDenied(updatedRequest.getGuestId());
+                requestForReservationRepository.flush();
+            });
         }
         return RequestForReservationMapper.INSTANCE.toDto(updatedRequest);
     }
@@ -255,32 +265,24 @@ public class RequestForReservationService {
     private void checkIfThereIsLodgeAvailabilityPeriodIsntDeleted(RequestForReservation request, List<LodgeAvailabilityPeriodDto> availabilityPeriods) {
         LodgeAvailabilityPeriodDto availabilityPeriod = getLodgeAvailabilityPeriodCompatibleWithRequest(request, availabilityPeriods);
         if (availabilityPeriod == null) {
-            List<RequestForReservation> requestsThatNeedToBeDenied = findRequestForReservationWithOverlappingDateRangeThatNeedToBeDenied(request);
-            denyRequestsForReservation(requestsThatNeedToBeDenied);
+            denyWaitingRequestsWithOverlappingDateRange(request);
             throw new BadRequestException("There is no lodge availability period for selected date range.");
         }
     }
 
-    private List<RequestForReservation> findRequestForReservationWithOverlappingDateRangeThatNeedToBeDenied(RequestForReservation request) {
-        List<RequestForReservation> requestsThatNeedToBeDenied = new ArrayList<>();
-        List<RequestForReservation> requestsForReservation = getRequestsForReservationForLodge(request.getLodgeId());
-        for (RequestForReservation existingRequest : requestsForReservation) {
-            if (existingRequest.getStatus() == RequestForReservationStatus.WAITING_FOR_RESPONSE) {          // if existing request is waiting for response and date is overlapping deny it
-                if ((existingRequest.getDateTo().isAfter(request.getDateFrom()) || existingRequest.getDateTo().isEqual(request.getDateFrom()))
-                        && (existingRequest.getDateFrom().isBefore(request.getDateTo()) || existingRequest.getDateFrom().isEqual(request.getDateTo()))) {
-                    requestsThatNeedToBeDenied.add(existingRequest);
-                }
-            }
+    private void denyWaitingRequestsWithOverlappingDateRange(RequestForReservation request) {
+        List<UUID> guestIds = requestForReservationRepository.denyWaitingRequestsWithOverlappingDateRange(
+                request.getLodgeId(), request.getDateFrom(), request.getDateTo());
+        if (!guestIds.isEmpty()) {
+            notificationService.sendNotifications(guestIds.stream().map(UUID::toString).toList(), NotificationType.RESERVATION_RESPONSE_REJECT);
         }
-        return requestsThatNeedToBeDenied;
     }
 
-    private void denyRequestsForReservation(List<RequestForReservation> requestsForReservation) {
-        for (RequestForReservation request : requestsForReservation) {
-            request.setStatus(RequestForReservationStatus.DENIED);
-            requestForReservationRepository.save(request);
-
-            notificationService.sendNotification(request.getGuestId().toString(), NotificationType.RESERVATION_RESPONSE_REJECT);
+    private void denyWaitingRequestsCompetingWithApproved(RequestForReservation approvedRequest) {
+        List<UUID> guestIds = requestForReservationRepository.denyWaitingRequestsCompetingWithApproved(
+                approvedRequest.getLodgeId(), approvedRequest.getId(), approvedRequest.getDateFrom(), approvedRequest.getDateTo());
+        if (!guestIds.isEmpty()) {
+            notificationService.sendNotifications(guestIds.stream().map(UUID::toString).toList(), NotificationType.RESERVATION_RESPONSE_REJECT);
         }
     }
 
@@ -309,7 +311,14 @@ public class RequestForReservationService {
     }
 
     private void requestForReservationApproved(RequestForReservation request) {
-        reservationService.createReservation(request);
+        try {
+            reservationService.createReservation(request);
+        } catch (BadRequestException e) {
+            // update doesn't roll back on BadRequestException, but the approval must not be saved without its reservation
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            throw e;
+        }
+        denyWaitingRequestsCompetingWithApproved(request);
         notificationService.sendNotification(request.getGuestId().toString(), NotificationType.RESERVATION_RESPONSE_ACCEPT);
     }
 
@@ -318,34 +327,61 @@ public class RequestForReservationService {
         notificationService.sendNotification(guestId.toString(), NotificationType.RESERVATION_RESPONSE_ACCEPT);
     }
 
+    @Transactional(readOnly = true)
     public List<RequestForReservationDto> getHostReservationRequests() {
-        UserDto host = getLoggedInUser();
-        List<RequestForReservation> requests = requestForReservationRepository.findByOwnerId(host.getId());
-        return RequestForReservationMapper.INSTANCE.toDto(requests);
+        UserDto host = loggedInUserService.getLoggedInUserForRead();
+        return requestForReservationRepository.findDtosByOwnerId(host.getId());
     }
 
+    @Transactional(readOnly = true)
     public List<RequestForReservationDto> getGuestReservationRequests() {
-        UserDto guest = getLoggedInUser();
-        List<RequestForReservation> requests = requestForReservationRepository.findByGuestId(guest.getId());
-        return RequestForReservationMapper.INSTANCE.toDto(requests);
+        UserDto guest = loggedInUserService.getLoggedInUserForRead();
+        return requestForReservationRepository.findDtosByGuestId(guest.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPageDto<RequestForReservationDto> getHostReservationRequestsPage(RequestForReservationStatus status, LocalDateTime dateFrom, LocalDateTime dateTo, String cursor, int size) {
+        UserDto host = loggedInUserService.getLoggedInUserForRead();
+        return findPage(QRequestForReservation.requestForReservation.ownerId.eq(host.getId()), status, dateFrom, dateTo, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPageDto<RequestForReservationDto> getGuestReservationRequestsPage(RequestForReservationStatus status, LocalDateTime dateFrom, LocalDateTime dateTo, String cursor, int size) {
+        UserDto guest = loggedInUserService.getLoggedInUserForRead();
+        return findPage(QRequestForReservation.requestForReservation.guestId.eq(guest.getId()), status, dateFrom, dateTo, cursor, size);
+    }
+
+    private KeysetPageDto<RequestForReservationDto> findPage(Predicate owner, RequestForReservationStatus status, LocalDateTime dateFrom, LocalDateTime dateTo, String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        QRequestForReservation request = QRequestForReservation.requestForReservation;
+        BooleanBuilder predicate = new BooleanBuilder(owner)
+                .and(KeysetPagination.dateRange(request.dateFrom, request.dateTo, dateFrom, dateTo))
+                .and(KeysetPagination.after(request.dateFrom, request.id, cursor));
+        if (status != null) {
+            predicate.and(request.status.eq(status));
+        }
+        List<RequestForReservationDto> requests = requestForReservationRepository.findDtoPage(predicate, pageSize + 1);
+        return KeysetPagination.toPage(requests, pageSize, RequestForReservationDto::getDateFrom, RequestForReservationDto::getId, Function.identity());
     }
 
+    @Transactional(readOnly = true)
     public RequestForReservationDto getReservationRequestByIdHost(UUID id) {
-        UserDto host = getLoggedInUser();
-        RequestForReservation request = requestForReservationRepository.findById(id).orElseThrow(() -> new NotFoundException("Request For Reservation doesn't exist"));
+        UserDto host = loggedInUserService.getLoggedInUserForRead();
+        RequestForReservationDto request = requestForReservationRepository.findDtoById(id).orElseThrow(() -> new NotFoundException("Request For Reservation doesn't exist"));
         if (!request.getOwnerId().equals(host.getId())) {
             throw new ForbiddenException("You can only get reservation requests for lodges you own.");
         }
-        return RequestForReservationMapper.INSTANCE.toDto(request);
+        return request;
     }
 
+    @Transactional(readOnly = true)
     public RequestForReservationDto getReservationRequestByIdGuest(UUID id) {
-        UserDto guest = getLoggedInUser();
-        RequestForReservation request = requestForReservationRepository.findById(id).orElseThrow(() -> new NotFoundException("Request For Reservation doesn't exist"));
+        UserDto guest = loggedInUserService.getLoggedInUserForRead();
+        RequestForReservationDto request = requestForReservationRepository.findDtoById(id).orElseThrow(() -> new NotFoundException("Request For Reservation doesn't exist"));
         if (!request.getGuestId().equals(guest.getId())) {
             throw new ForbiddenException("You can only get reservation requests for lodges you made requests for.");
         }
-        return RequestForReservationMapper.INSTANCE.toDto(request);
+        return request;
     }
 
     public void cancelRequestForReservation(UUID requestForReservationId) {
@@ -354,6 +390,7 @@ public class RequestForReservationService {
         requestForReservationRepository.save(request);
     }
 
+    @Transactional(readOnly = true)
     public BoolCheckResponseDto checkIfRequestForReservationExists(UUID lodgeId, LocalDateTime dateFrom, LocalDateTime dateTo) {
         boolean exists = requestForReservationRepository.existsByLodgeIdAndDateRangeOverlap(lodgeId, dateFrom, dateTo);
         return BoolCheckResponseDto.builder().value(exists).build();
@@ -0,0 +1,158 @@
+package ftn.reservationservice.services;
+
+import ftn.reservationservice.domain.entities.Reservation;
+import ftn.reservationservice.domain.entities.ReservationStatus;
+import ftn.reservationservice.repositories.ReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Per-lodge sorted set of ACTIVE reservation intervals. Active reservations of one lodge never overlap,
+// so intervals sorted by dateFrom are also sorted by dateTo and an overlap check needs a single floor lookup.
+@Service
+public class ReservationAvailabilityIndex {
+
+    private final ReservationRepository reservationRepository;
+
+    private final Map<UUID, LodgeIntervals> lodges = new ConcurrentHashMap<>();
+
+    private final long refreshIntervalMillis;
+
+    public ReservationAvailabilityIndex(ReservationRepository reservationRepository,
+                                        @Value("${reservation.availability-index.refresh-interval:PT5M}") Duration refreshInterval) {
+        this.reservationRepository = reservationRepository;
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+    }
+
+    public boolean hasOverlappingReservation(UUID lodgeId, LocalDateTime dateFrom, LocalDateTime dateTo) {
+        return getLodgeIntervals(lodgeId).overlaps(dateFrom, dateTo);
+    }
+
+    public void reservationCreated(Reservation reservation) {
+        afterCommit(() -> {
+            LodgeIntervals intervals = lodges.get(reservation.getLodgeId());
+            if (intervals != null) {
+                intervals.add(reservation.getId(), reservation.getDateFrom(), reservation.getDateTo());
+            }
+        });
+    }
+
+    public void reservationCanceled(Reservation reservation) {
+        afterCommit(() -> {
+            LodgeIntervals intervals = lodges.get(reservation.getLodgeId());
+            if (intervals != null) {
+                intervals.remove(reservation.getId(), reservation.getDateFrom());
+            }
+        });
+    }
+
+    public void reservationsDeleted() {
+        afterCommit(lodges::clear);
+    }
+
+    // Drops a lodge whose intervals turned out to be stale, the next check reloads it
+    public void invalidate(UUID lodgeId) {
+        lodges.remove(lodgeId);
+    }
+
+    // The map is only touched with cheap operations, the database load happens under the lodge's own lock
+    // so it neither blocks other lodges nor pins a carrier thread when running on virtual threads.
+    private LodgeIntervals getLodgeIntervals(UUID lodgeId) {
+        LodgeIntervals intervals = lodges.computeIfAbsent(lodgeId, id -> new LodgeIntervals());
+        intervals.loadIfStale(() -> reservationRepository.findByStatusAndLodgeId(ReservationStatus.ACTIVE, lodgeId), refreshIntervalMillis);
+        return intervals;
+    }
+
+    // The index must only reflect committed reservations, otherwise a rolled back insert would block the dates.
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Interval(UUID reservationId, LocalDateTime dateFrom, LocalDateTime dateTo) {
+    }
+
+    private static class LodgeIntervals {
+
+        private final TreeMap<LocalDateTime, Interval> intervalsByDateFrom = new TreeMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile long loadedAt = -1;
+
+        void loadIfStale(Supplier<List<Reservation>> activeReservations, long refreshIntervalMillis) {
+            if (!isStale(refreshIntervalMillis)) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (!isStale(refreshIntervalMillis)) {
+                    return;
+                }
+                intervalsByDateFrom.clear();
+                for (Reservation reservation : activeReservations.get()) {
+                    intervalsByDateFrom.put(reservation.getDateFrom(),
+                            new Interval(reservation.getId(), reservation.getDateFrom(), reservation.getDateTo()));
+                }
+                loadedAt = System.currentTimeMillis();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean overlaps(LocalDateTime dateFrom, LocalDateTime dateTo) {
+            lock.readLock().lock();
+            try {
+                Map.Entry<LocalDateTime, Interval> candidate = intervalsByDateFrom.lowerEntry(dateTo);
+                return candidate != null && candidate.getValue().dateTo().isAfter(dateFrom);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void add(UUID reservationId, LocalDateTime dateFrom, LocalDateTime dateTo) {
+            lock.writeLock().lock();
+            try {
+                intervalsByDateFrom.put(dateFrom, new Interval(reservationId, dateFrom, dateTo));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(UUID reservationId, LocalDateTime dateFrom) {
+            lock.writeLock().lock();
+            try {
+                Interval interval = intervalsByDateFrom.get(dateFrom);
+                if (interval != null && interval.reservationId().equals(reservationId)) {
+                    intervalsByDateFrom.remove(dateFrom);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private boolean isStale(long refreshIntervalMillis) {
+            return loadedAt < 0 || System.currentTimeMillis() - loadedAt > refreshIntervalMillis;
+        }
+
+    }
+
+}
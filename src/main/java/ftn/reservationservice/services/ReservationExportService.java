@@ -0,0 +1,91 @@
+package ftn.reservationservice.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ftn.reservationservice.domain.dtos.UserDto;
+import ftn.reservationservice.domain.entities.Reservation;
+import ftn.reservationservice.domain.mappers.ReservationMapper;
+import ftn.reservationservice.repositories.ReservationRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Writes reservations as NDJSON one row at a time, every row is detached once written
+// so neither the persistence context nor the response buffer grows with the result size.
+@Service
+public class ReservationExportService {
+
+    private final ReservationRepository reservationRepository;
+
+    private final LoggedInUserService loggedInUserService;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter rowWriter;
+
+    private final int flushEvery;
+
+    public ReservationExportService(ReservationRepository reservationRepository,
+                                    LoggedInUserService loggedInUserService,
+                                    EntityManager entityManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${reservation.export.flush-every:500}") int flushEvery) {
+        this.reservationRepository = reservationRepository;
+        this.loggedInUserService = loggedInUserService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.flushEvery = flushEvery;
+    }
+
+    // Resolved on the request thread, the export itself runs later on an async thread
+    public UUID getLoggedInHostId() {
+        UserDto host = loggedInUserService.getLoggedInUserForRead();
+        return host.getId();
+    }
+
+    @Transactional(readOnly = true)
+    public void exportByOwnerId(UUID ownerId, OutputStream outputStream) throws IOException {
+        try (Stream<Reservation> reservations = reservationRepository.streamByOwnerIdOrderByDateFromAscIdAsc(ownerId)) {
+            write(reservations, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAll(OutputStream outputStream) throws IOException {
+        try (Stream<Reservation> reservations = reservationRepository.streamAllBy()) {
+            write(reservations, outputStream);
+        }
+    }
+
+    private void write(Stream<Reservation> reservations, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // rows are separated by the newline written below, not by Jackson's default space between root values
+            generator.setRootValueSeparator(null);
+            Iterator<Reservation> iterator = reservations.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                Reservation reservation = iterator.next();
+                rowWriter.writeValue(generator, ReservationMapper.INSTANCE.toDto(reservation));
+                generator.writeRaw('\n');
+                entityManager.detach(reservation);
+                if (++written % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+}
@@ -1,6 +1,9 @@
 package ftn.reservationservice.services;
 
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
 import ftn.reservationservice.domain.dtos.*;
+import ftn.reservationservice.domain.entities.QReservation;
 import ftn.reservationservice.domain.entities.RequestForReservation;
 import ftn.reservationservice.domain.entities.Reservation;
 import ftn.reservationservice.domain.entities.ReservationStatus;
@@ -10,15 +13,16 @@ import ftn.reservationservice.exception.exceptions.ForbiddenException;
 import ftn.reservationservice.exception.exceptions.NotFoundException;
 import ftn.reservationservice.repositories.RequestForReservationRepository;
 import ftn.reservationservice.repositories.ReservationRepository;
-import ftn.reservationservice.utils.AuthUtils;
-import jakarta.transaction.Transactional;
+import ftn.reservationservice.utils.KeysetPagination;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 @Transactional
@@ -26,29 +30,58 @@ public class ReservationService {
 
     private final RestService restService;
 
+    private final LoggedInUserService loggedInUserService;
+
     private final RequestForReservationService requestForReservationService;
 
     private final ReservationRepository reservationRepository;
 
+    private final ReservationAvailabilityIndex reservationAvailabilityIndex;
+
     public ReservationService(RestService restService,
+                              LoggedInUserService loggedInUserService,
                               ReservationRepository reservationRepository,
+                              ReservationAvailabilityIndex reservationAvailabilityIndex,
                               @Lazy RequestForReservationService requestForReservationService) {
         this.restService = restService;
+        this.loggedInUserService = loggedInUserService;
         this.reservationRepository = reservationRepository;
+        this.reservationAvailabilityIndex = reservationAvailabilityIndex;
         this.requestForReservationService = requestForReservationService;
     }
 
+    @Transactional(readOnly = true)
     public List<Reservation> getActiveReservationsForLodge(UUID lodgeId) {
         return reservationRepository.findByStatusAndLodgeId(ReservationStatus.ACTIVE, lodgeId);
     }
 
+    // The index is local to this instance and can still hold a reservation another instance canceled,
+    // so only its "free" answer is trusted and every hit is confirmed against the database.
+    public boolean hasActiveReservationWithOverlappingDateRange(UUID lodgeId, LocalDateTime dateFrom, LocalDateTime dateTo) {
+        if (!reservationAvailabilityIndex.hasOverlappingReservation(lodgeId, dateFrom, dateTo)) {
+            return false;
+        }
+        if (reservationRepository.existsActiveByLodgeIdAndDateRangeOverlap(lodgeId, dateFrom, dateTo)) {
+            return true;
+        }
+        reservationAvailabilityIndex.invalidate(lodgeId);
+        return false;
+    }
+
+    @Transactional(noRollbackFor = BadRequestException.class)
     public Reservation createReservation(RequestForReservation request) {
         Reservation reservation = ReservationMapper.INSTANCE.toReservation(request);
+        reservation.setId(UUID.randomUUID());
         reservation.setStatus(ReservationStatus.ACTIVE);
         reservation.setRequestForReservationId(request.getId());
-        return reservationRepository.save(reservation);
+        if (reservationRepository.insertIfNotOverlapping(reservation) == 0) {
+            throw new BadRequestException("There is active reservation for this lodge with overlapping dates with this one.");
+        }
+        reservationAvailabilityIndex.reservationCreated(reservation);
+        return reservation;
     }
 
+    @Transactional(readOnly = true)
     public CanceledReservationsCountDto countCanceledReservationsByGuest(UUID guestId) {
         long count = reservationRepository.countByGuestIdAndStatus(guestId, ReservationStatus.CANCELED);
         return CanceledReservationsCountDto.builder()
@@ -56,35 +89,61 @@ public class ReservationService {
                 .build();
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDto> getMyReservationsHost() {
-        UserDto host = getLoggedInUser();
-        List<Reservation> reservations = reservationRepository.findByOwnerId(host.getId());
-        return ReservationMapper.INSTANCE.toDto(reservations);
+        UserDto host = loggedInUserService.getLoggedInUserForRead();
+        return reservationRepository.findDtosByOwnerId(host.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReservationDto> getMyReservationsGuest() {
+        UserDto guest = loggedInUserService.getLoggedInUserForRead();
+        return reservationRepository.findDtosByGuestId(guest.getId());
     }
 
-    private UserDto getLoggedInUser() {
-        UUID id = AuthUtils.getLoggedUserId();
-        UserDto user = restService.getUserById(id);
-        if (user == null) {
-            throw new NotFoundException("User doesn't exist");
+    @Transactional(readOnly = true)
+    public List<ReservationDto> getReservationsForLodge(UUID lodgeId) {
+        UserDto host = loggedInUserService.getLoggedInUserForRead();
+        LodgeDto lodge = getLodge(lodgeId);
+        if (!lodge.getOwnerId().equals(host.getId())) {
+            throw new ForbiddenException("You can only get reservations for lodges you own.");
         }
-        return user;
+        return reservationRepository.findDtosByLodgeId(lodgeId);
     }
 
-    public List<ReservationDto> getMyReservationsGuest() {
-        UserDto guest = getLoggedInUser();
-        List<Reservation> reservations = reservationRepository.findByGuestId(guest.getId());
-        return ReservationMapper.INSTANCE.toDto(reservations);
+    @Transactional(readOnly = true)
+    public KeysetPageDto<ReservationDto> getMyReservationsHostPage(ReservationStatus status, LocalDateTime dateFrom, LocalDateTime dateTo, String cursor, int size) {
+        UserDto host = loggedInUserService.getLoggedInUserForRead();
+        return findPage(QReservation.reservation.ownerId.eq(host.getId()), status, dateFrom, dateTo, cursor, size);
     }
 
-    public List<ReservationDto> getReservationsForLodge(UUID lodgeId) {
-        UserDto host = getLoggedInUser();
+    @Transactional(readOnly = true)
+    public KeysetPageDto<ReservationDto> getMyReservationsGuestPage(ReservationStatus status, LocalDateTime dateFrom, LocalDateTime dateTo, String cursor, int size) {
+        UserDto guest = loggedInUserService.getLoggedInUserForRead();
+        return findPage(QReservation.reservation.guestId.eq(guest.getId()), status, dateFrom, dateTo, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPageDto<ReservationDto> getReservationsForLodgePage(UUID lodgeId, ReservationStatus status, LocalDateTime dateFrom, LocalDateTime dateTo, String cursor, int size) {
+        UserDto host = loggedInUserService.getLoggedInUserForRead();
         LodgeDto lodge = getLodge(lodgeId);
         if (!lodge.getOwnerId().equals(host.getId())) {
             throw new ForbiddenException("You can only get reservations for lodges you own.");
         }
-        List<Reservation> reservations = reservationRepository.findByLodgeId(lodgeId);
-        return ReservationMapper.INSTANCE.toDto(reservations);
+        return findPage(QReservation.reservation.lodgeId.eq(lodgeId), status, dateFrom, dateTo, cursor, size);
+    }
+
+    private KeysetPageDto<ReservationDto> findPage(Predicate owner, ReservationStatus status, LocalDateTime dateFrom, LocalDateTime dateTo, String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        QReservation reservation = QReservation.reservation;
+        BooleanBuilder predicate = new BooleanBuilder(owner)
+                .and(KeysetPagination.dateRange(reservation.dateFrom, reservation.dateTo, dateFrom, dateTo))
+                .and(KeysetPagination.after(reservation.dateFrom, reservation.id, cursor));
+        if (status != null) {
+            predicate.and(reservation.status.eq(status));
+        }
+        List<ReservationDto> reservations = reservationRepository.findDtoPage(predicate, pageSize + 1);
+        return KeysetPagination.toPage(reservations, pageSize, ReservationDto::getDateFrom, ReservationDto::getId, Function.identity());
     }
 
     private LodgeDto getLodge(UUID lodgeId) {
@@ -95,33 +154,35 @@ public class ReservationService {
         return lodge;
     }
 
+    @Transactional(readOnly = true)
     public ReservationDto getReservationByIdHost(UUID id) {
-        UserDto host = getLoggedInUser();
-        Reservation reservation = reservationRepository.findById(id).orElseThrow(() -> new NotFoundException("Reservation doesn't exist"));
+        UserDto host = loggedInUserService.getLoggedInUserForRead();
+        ReservationDto reservation = reservationRepository.findDtoById(id).orElseThrow(() -> new NotFoundException("Reservation doesn't exist"));
         if (!reservation.getOwnerId().equals(host.getId())) {
             throw new ForbiddenException("You can only get reservation for lodges you own.");
         }
-        return ReservationMapper.INSTANCE.toDto(reservation);
+        return reservation;
     }
 
+    @Transactional(readOnly = true)
     public ReservationDto getReservationByIdGuest(UUID id) {
-        UserDto guest = getLoggedInUser();
-        Reservation reservation = reservationRepository.findById(id).orElseThrow(() -> new NotFoundException("Reservation doesn't exist"));
+        UserDto guest = loggedInUserService.getLoggedInUserForRead();
+        ReservationDto reservation = reservationRepository.findDtoById(id).orElseThrow(() -> new NotFoundException("Reservation doesn't exist"));
         if (!reservation.getGuestId().equals(guest.getId())) {
             throw new ForbiddenException("You can only get reservation for lodges you made reservations for.");
         }
-        return ReservationMapper.INSTANCE.toDto(reservation);
+        return reservation;
     }
 
+    @Transactional(readOnly = true)
     public List<ReservationDto> getAllReservationsForCancelation() {
-        UserDto guest = getLoggedInUser();
+        UserDto guest = loggedInUserService.getLoggedInUserForRead();
         LocalDateTime futureDate = LocalDateTime.now().plusDays(1);
-        List<Reservation> reservations = reservationRepository.findActiveReservationsByGuestIdAndFutureDate(guest.getId(), futureDate);
-        return ReservationMapper.INSTANCE.toDto(reservations);
+        return reservationRepository.findActiveReservationsByGuestIdAndFutureDate(guest.getId(), futureDate);
     }
 
     public ReservationDto cancelReservation(UUID reservationId) {
-        UserDto guest = getLoggedInUser();
+        UserDto guest = loggedInUserService.getLoggedInUser();
         Reservation reservation = reservationRepository.findById(reservationId).orElseThrow(() -> new NotFoundException("Reservation doesn't exist"));
         checkDidGuestMadeReservation(guest, reservation);
         checkReservationStatusIsACTIVE(reservation);
@@ -160,22 +221,26 @@ public class ReservationService {
     private void executeReservationCancelation(Reservation reservation) {
         reservation.setStatus(ReservationStatus.CANCELED);
         reservationRepository.save(reservation);
+        reservationAvailabilityIndex.reservationCanceled(reservation);
     }
 
     private void cancelReservationRequest(UUID reservationRequestId) {
         requestForReservationService.cancelRequestForReservation(reservationRequestId);
     }
 
+    @Transactional(readOnly = true)
     public BoolCheckResponseDto checkIfUserHadReservationInLodge(UUID guestId, UUID lodgeId) {
         boolean exists = reservationRepository.existsByGuestIdAndLodgeId(guestId, lodgeId);
         return BoolCheckResponseDto.builder().value(exists).build();
     }
 
+    @Transactional(readOnly = true)
     public BoolCheckResponseDto checkIfUserHadReservationWithHost(UUID guestId, UUID hostId) {
         boolean exists = reservationRepository.existsByGuestIdAndOwnerId(guestId, hostId);
         return BoolCheckResponseDto.builder().value(exists).build();
     }
 
+    @Transactional(readOnly = true)
     public BoolCheckResponseDto checkIfReservationExistsInDateRange(UUID lodgeId, LocalDateTime dateFrom, LocalDateTime dateTo) {
         boolean exists = reservationRepository.existsByLodgeIdAndDateRangeOverlap(lodgeId, dateFrom, dateTo);
         return BoolCheckResponseDto.builder().value(exists).build();
@@ -183,6 +248,7 @@ public class ReservationService {
 
     public void deleteAllByHost(UUID hostId) {
         reservationRepository.deleteAllByOwnerId(hostId);
+        reservationAvailabilityIndex.reservationsDeleted();
     }
 
 }
@@ -1,26 +1,36 @@
 package ftn.reservationservice.services;
 
+import ftn.reservationservice.config.cache.CacheConfig;
+import ftn.reservationservice.config.security.AdminTokenProvider;
 import ftn.reservationservice.domain.dtos.LodgeAvailabilityPeriodDto;
 import ftn.reservationservice.domain.dtos.LodgeDto;
 import ftn.reservationservice.domain.dtos.UserDto;
 import ftn.reservationservice.exception.exceptions.InternalException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import ftn.reservationservice.utils.RequestCoalescer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Service
 @Slf4j
@@ -29,19 +39,66 @@ public class RestService {
 
     private final RestTemplate restTemplate;
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final AdminTokenProvider adminTokenProvider;
+
     @Value("${user.service}")
     private String userServiceUrl;
     @Value("${lodge.service}")
     private String lodgeServiceUrl;
+    @Value("${lodge.lookup.coalescing.enabled:false}")
+    private boolean lodgeLookupCoalescingEnabled;
+    @Value("${lodge.lookup.coalescing.max-batch-size:50}")
+    private int lodgeLookupMaxBatchSize;
+    @Value("${lodge.lookup.coalescing.window:PT0.005S}")
+    private Duration lodgeLookupWindow;
+    @Value("${lodge.lookup.coalescing.timeout:PT15S}")
+    private Duration lodgeLookupTimeout;
+    @Value("${lodge.lookup.coalescing.dispatch-threads:4}")
+    private int lodgeLookupDispatchThreads;
+    @Value("${lodge.lookup.coalescing.dispatch-queue-capacity:100}")
+    private int lodgeLookupDispatchQueueCapacity;
+
+    private ThreadPoolTaskExecutor lodgeLookupDispatchExecutor;
+
+    private RequestCoalescer<UUID, LodgeDto> lodgeCoalescer;
+    private RequestCoalescer<UUID, List<LodgeAvailabilityPeriodDto>> lodgeAvailabilityPeriodsCoalescer;
+
+    @PostConstruct
+    public void initLodgeLookupCoalescing() {
+        if (!lodgeLookupCoalescingEnabled) {
+            return;
+        }
+        // Not the RemoteCallExecutor pool: its workers block on coalesced lookups, so a batch queued behind them would
+        // only run once they time out. When this pool is full the batch fails fast instead of running on the timer thread.
+        lodgeLookupDispatchExecutor = new ThreadPoolTaskExecutor();
+        lodgeLookupDispatchExecutor.setThreadNamePrefix("lodge-lookup-batch-");
+        lodgeLookupDispatchExecutor.setCorePoolSize(lodgeLookupDispatchThreads);
+        lodgeLookupDispatchExecutor.setMaxPoolSize(lodgeLookupDispatchThreads);
+        lodgeLookupDispatchExecutor.setQueueCapacity(lodgeLookupDispatchQueueCapacity);
+        lodgeLookupDispatchExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        lodgeLookupDispatchExecutor.initialize();
+
+        lodgeCoalescer = new RequestCoalescer<>("lodge", this::getLodgesByIdsAsMap, lodgeLookupMaxBatchSize, lodgeLookupWindow,
+                lodgeLookupTimeout, lodgeLookupDispatchExecutor);
+        lodgeAvailabilityPeriodsCoalescer = new RequestCoalescer<>("lodge-availability-periods",
+                this::getLodgeAvailabilityPeriodsByLodgeIds, lodgeLookupMaxBatchSize, lodgeLookupWindow,
+                lodgeLookupTimeout, lodgeLookupDispatchExecutor);
+    }
 
-    static final long EXPIRATION_TIME = 30L * 24 * 60 * 60 * 1000; // 1 month
+    @PreDestroy
+    public void closeLodgeLookupCoalescing() {
+        if (lodgeCoalescer != null) {
+            lodgeCoalescer.close();
+            lodgeAvailabilityPeriodsCoalescer.close();
+            lodgeLookupDispatchExecutor.shutdown();
+        }
+    }
 
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#userId", unless = "#result == null")
     public UserDto getUserById(UUID userId) {
         try {
             HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + createAdminToken());
+            headers.set("Authorization", "Bearer " + adminTokenProvider.getToken());
             HttpEntity<String> httpRequest = new HttpEntity<>(headers);
 
             String url = userServiceUrl + "/api/users/" + userId;
@@ -58,10 +115,14 @@ public class RestService {
         }
     }
 
+    @Cacheable(cacheNames = CacheConfig.LODGES, key = "#lodgeId", unless = "#result == null")
     public LodgeDto getLodgeById(UUID lodgeId) {
+        if (lodgeCoalescer != null) {
+            return lodgeCoalescer.get(lodgeId);
+        }
         try {
             HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + createAdminToken());
+            headers.set("Authorization", "Bearer " + adminTokenProvider.getToken());
             HttpEntity<String> httpRequest = new HttpEntity<>(headers);
 
             String url = lodgeServiceUrl + "/api/lodge/interservice/" + lodgeId;
@@ -78,10 +139,14 @@ public class RestService {
         }
     }
 
+    @Cacheable(cacheNames = CacheConfig.LODGE_AVAILABILITY_PERIODS, key = "#lodgeId", unless = "#result == null")
     public List<LodgeAvailabilityPeriodDto> getLodgeAvailabilityPeriods(UUID lodgeId) {
+        if (lodgeAvailabilityPeriodsCoalescer != null) {
+            return lodgeAvailabilityPeriodsCoalescer.get(lodgeId);
+        }
         try {
             HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + createAdminToken());
+            headers.set("Authorization", "Bearer " + adminTokenProvider.getToken());
             HttpEntity<String> httpRequest = new HttpEntity<>(headers);
 
             String url = lodgeServiceUrl + "/api/lodge/availability/all/interservice/" + lodgeId;
@@ -98,15 +163,58 @@ public class RestService {
         }
     }
 
-    private String createAdminToken() {
-        return Jwts.builder()
-                .setSubject("admin@ftn.com")
-                .claim("role", "ADMIN")
-                .claim("userId", "e40fcab5-d45b-4567-9d91-14e58178fea6")
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
-                .compact();
+    public List<LodgeDto> getLodgesByIds(Collection<UUID> lodgeIds) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("Authorization", "Bearer " + adminTokenProvider.getToken());
+            HttpEntity<Collection<UUID>> httpRequest = new HttpEntity<>(lodgeIds, headers);
+
+            String url = lodgeServiceUrl + "/api/lodge/interservice/batch";
+            ResponseEntity<List<LodgeDto>> response = restTemplate.exchange(url, HttpMethod.POST, httpRequest, new ParameterizedTypeReference<List<LodgeDto>>() {});
+
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                return response.getBody();
+            } else {
+                throw new InternalException("Failed to get lodges");
+            }
+        } catch (Exception e) {
+            log.error("Error while getting lodges: ", e);
+            throw new InternalException("Unexpected error while getting lodges");
+        }
+    }
+
+    // Every requested lodge is present in the result, lodges without availability periods map to an empty list
+    public Map<UUID, List<LodgeAvailabilityPeriodDto>> getLodgeAvailabilityPeriodsByLodgeIds(Collection<UUID> lodgeIds) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("Authorization", "Bearer " + adminTokenProvider.getToken());
+            HttpEntity<Collection<UUID>> httpRequest = new HttpEntity<>(lodgeIds, headers);
+
+            String url = lodgeServiceUrl + "/api/lodge/availability/all/interservice/batch";
+            ResponseEntity<List<LodgeAvailabilityPeriodDto>> response = restTemplate.exchange(url, HttpMethod.POST, httpRequest, new ParameterizedTypeReference<List<LodgeAvailabilityPeriodDto>>() {});
+
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                Map<UUID, List<LodgeAvailabilityPeriodDto>> availabilityPeriods = new HashMap<>();
+                lodgeIds.forEach(lodgeId -> availabilityPeriods.put(lodgeId, new ArrayList<>()));
+                for (LodgeAvailabilityPeriodDto availabilityPeriod : response.getBody()) {
+                    availabilityPeriods.computeIfAbsent(availabilityPeriod.getLodgeId(), lodgeId -> new ArrayList<>()).add(availabilityPeriod);
+                }
+                return availabilityPeriods;
+            } else {
+                throw new InternalException("Failed to get lodges");
+            }
+        } catch (Exception e) {
+            log.error("Error while getting lodges: ", e);
+            throw new InternalException("Unexpected error while getting lodges");
+        }
+    }
+
+    private Map<UUID, LodgeDto> getLodgesByIdsAsMap(Collection<UUID> lodgeIds) {
+        Map<UUID, LodgeDto> lodges = new HashMap<>();
+        for (LodgeDto lodge : getLodgesByIds(lodgeIds)) {
+            lodges.put(lodge.getId(), lodge);
+        }
+        return lodges;
     }
 
 }
@@ -0,0 +1,36 @@
+package ftn.reservationservice.services;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Supplier;
+
+// Every stage becomes a reservation.workflow.stage timer sample tagged by workflow and stage, and a child span
+// of the current request span, so a slow request can be broken down per stage in Prometheus and in Zipkin.
+@Service
+@RequiredArgsConstructor
+public class WorkflowStageObserver {
+
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+
+    private final ObservationRegistry observationRegistry;
+
+    public <T> T observe(String workflow, String stage, Supplier<T> action) {
+        return stage(workflow, stage).observe(action);
+    }
+
+    public void observe(String workflow, String stage, Runnable action) {
+        stage(workflow, stage).observe(action);
+    }
+
+    private Observation stage(String workflow, String stage) {
+        return Observation.createNotStarted("reservation.workflow.stage", observationRegistry)
+                .contextualName(workflow + " " + stage)
+                .lowCardinalityKeyValue("workflow", workflow)
+                .lowCardinalityKeyValue("stage", stage);
+    }
+
+}
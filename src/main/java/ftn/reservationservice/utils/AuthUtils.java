@@ -2,6 +2,7 @@ package ftn.reservationservice.utils;
 
 import ftn.reservationservice.exception.exceptions.AuthorizationException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.Map;
@@ -31,4 +32,15 @@ public class AuthUtils {
         throw new AuthorizationException("Not logged in");
     }
 
+    public static String getLoggedUserRole() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                return authority.getAuthority();
+            }
+        }
+
+        throw new AuthorizationException("Not logged in");
+    }
+
 }
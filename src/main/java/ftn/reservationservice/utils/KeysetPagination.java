@@ -0,0 +1,97 @@
+package ftn.reservationservice.utils;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparablePath;
+import com.querydsl.core.types.dsl.DateTimePath;
+import ftn.reservationservice.domain.dtos.KeysetPageDto;
+import ftn.reservationservice.exception.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Listings are ordered by (dateFrom, id) descending, a page continues strictly after the last row of the previous one
+// so every page is a bounded range scan over the (owner/guest/lodge, dateFrom, id) indexes instead of an OFFSET.
+public final class KeysetPagination {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetPagination() {
+    }
+
+    public static int pageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        return size;
+    }
+
+    // Keeps rows whose stay overlaps the given range, either bound may be omitted
+    public static BooleanBuilder dateRange(DateTimePath<LocalDateTime> dateFromPath, DateTimePath<LocalDateTime> dateToPath,
+                                           LocalDateTime dateFrom, LocalDateTime dateTo) {
+        BooleanBuilder predicate = new BooleanBuilder();
+        if (dateFrom != null) {
+            predicate.and(dateToPath.gt(dateFrom));
+        }
+        if (dateTo != null) {
+            predicate.and(dateFromPath.lt(dateTo));
+        }
+        return predicate;
+    }
+
+    public static OrderSpecifier<?>[] order(DateTimePath<LocalDateTime> dateFromPath, ComparablePath<UUID> idPath) {
+        return new OrderSpecifier<?>[]{dateFromPath.desc(), idPath.desc()};
+    }
+
+    public static BooleanBuilder after(DateTimePath<LocalDateTime> dateFromPath, ComparablePath<UUID> idPath, String cursor) {
+        BooleanBuilder predicate = new BooleanBuilder();
+        if (cursor == null || cursor.isBlank()) {
+            return predicate;
+        }
+        Cursor position = Cursor.decode(cursor);
+        return predicate.and(dateFromPath.lt(position.dateFrom())
+                .or(dateFromPath.eq(position.dateFrom()).and(idPath.lt(position.id()))));
+    }
+
+    // rows are expected to be fetched with a limit of size + 1, the extra row only signals that another page exists
+    public static <E, D> KeysetPageDto<D> toPage(List<E> rows, int size, Function<E, LocalDateTime> dateFromOf,
+                                                 Function<E, UUID> idOf, Function<List<E>, List<D>> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            E last = content.get(content.size() - 1);
+            nextCursor = new Cursor(dateFromOf.apply(last), idOf.apply(last)).encode();
+        }
+        return KeysetPageDto.<D>builder()
+                .content(mapper.apply(content))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private record Cursor(LocalDateTime dateFrom, UUID id) {
+
+        String encode() {
+            String value = dateFrom + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = value.indexOf('|');
+                return new Cursor(LocalDateTime.parse(value.substring(0, separator)), UUID.fromString(value.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new BadRequestException("Invalid page cursor.");
+            }
+        }
+
+    }
+
+}
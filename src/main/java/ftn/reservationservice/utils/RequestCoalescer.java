@@ -0,0 +1,164 @@
+package ftn.reservationservice.utils;
+
+import ftn.reservationservice.exception.exceptions.InternalException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Merges single-key lookups arriving within a short window into one batched call.
+// A batch is dispatched when the window elapses or when it reaches maxBatchSize, whichever comes first.
+// The scheduler only times the windows, batches it flushes run on dispatchExecutor so a slow batch can't hold up
+// the windows of other keys, and every lookup gives up after timeout.
+@Slf4j
+public class RequestCoalescer<K, V> implements AutoCloseable {
+
+    private final String name;
+    private final Function<Set<K>, Map<K, V>> batchLoader;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final long timeoutNanos;
+    private final Executor dispatchExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    // Identifies the window the pending keys belong to, a timer of an earlier window must not flush a later one
+    private long window;
+    private ScheduledFuture<?> windowTimer;
+
+    public RequestCoalescer(String name, Function<Set<K>, Map<K, V>> batchLoader, int maxBatchSize, Duration window,
+                            Duration timeout, Executor dispatchExecutor) {
+        this.name = name;
+        this.batchLoader = batchLoader;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.dispatchExecutor = dispatchExecutor;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-coalescer-timer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Returns null when the batch response doesn't contain the key
+    public V get(K key) {
+        try {
+            return load(key).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                throw new InternalException("Timed out waiting for batched " + name + " lookup");
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<V> load(K key) {
+        Map<K, CompletableFuture<V>> fullBatch = null;
+        CompletableFuture<V> future;
+        lock.lock();
+        try {
+            future = pending.get(key);
+            if (future == null) {
+                future = new CompletableFuture<V>().orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+                pending.put(key, future);
+                if (pending.size() == 1) {
+                    long currentWindow = window;
+                    windowTimer = scheduler.schedule(() -> flush(currentWindow), windowNanos, TimeUnit.NANOSECONDS);
+                }
+                if (pending.size() >= maxBatchSize) {
+                    fullBatch = takePending();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return future;
+    }
+
+    private void flush(long timedWindow) {
+        Map<K, CompletableFuture<V>> batch;
+        lock.lock();
+        try {
+            if (timedWindow != window) {
+                return;
+            }
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+        dispatchAsync(batch);
+    }
+
+    private void dispatchAsync(Map<K, CompletableFuture<V>> batch) {
+        if (!batch.isEmpty()) {
+            try {
+                dispatchExecutor.execute(() -> dispatch(batch));
+            } catch (RejectedExecutionException e) {
+                log.error("Batched {} lookup of {} keys was rejected: ", name, batch.size(), e);
+                InternalException failure = new InternalException("Unexpected error during batched " + name + " lookup");
+                batch.values().forEach(future -> future.completeExceptionally(failure));
+            }
+        }
+    }
+
+    // Called with the lock held, ends the current window
+    private Map<K, CompletableFuture<V>> takePending() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        window++;
+        if (windowTimer != null) {
+            windowTimer.cancel(false);
+            windowTimer = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        try {
+            Map<K, V> results = batchLoader.apply(batch.keySet());
+            batch.forEach((key, future) -> future.complete(results.get(key)));
+        } catch (RuntimeException e) {
+            log.error("Batched {} lookup of {} keys failed: ", name, batch.size(), e);
+            RuntimeException failure = e instanceof InternalException ? e : new InternalException("Unexpected error during batched " + name + " lookup");
+            batch.values().forEach(future -> future.completeExceptionally(failure));
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        Map<K, CompletableFuture<V>> batch;
+        lock.lock();
+        try {
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+        dispatchAsync(batch);
+    }
+
+}
@@ -0,0 +1,14 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist@@
+
+ALTER TABLE reservation
+    ADD COLUMN IF NOT EXISTS date_range tsrange GENERATED ALWAYS AS (tsrange(date_from, date_to)) STORED@@
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'reservation_active_no_overlap') THEN
+        ALTER TABLE reservation
+            ADD CONSTRAINT reservation_active_no_overlap
+            EXCLUDE USING gist (lodge_id WITH =, date_range WITH &&) WHERE (status = 'ACTIVE');
+    END IF;
+END
+$$@@
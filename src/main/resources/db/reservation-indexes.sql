@@ -0,0 +1,6 @@
+-- Partial indexes can't be declared with @Index, the composite ones live on the entities
+CREATE INDEX IF NOT EXISTS idx_reservation_active_lodge_dates
+    ON reservation (lodge_id, date_from, date_to) WHERE status = 'ACTIVE'@@
+
+CREATE INDEX IF NOT EXISTS idx_reservation_active_guest_date_from
+    ON reservation (guest_id, date_from) WHERE status = 'ACTIVE'@@
@@ -0,0 +1,134 @@
+package ftn.reservationservice.config.datasource;
+
+import ftn.reservationservice.AuthPostgresIntegrationTest;
+import ftn.reservationservice.services.RestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The replica is a second, independent Postgres container, the database name tells which one served a query
+public class ReadReplicaRoutingTest extends AuthPostgresIntegrationTest {
+
+    @DynamicPropertySource
+    static void registerReplicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.replica.urls", () -> "jdbc:tc:postgresql:12.6:///devops_reservation_replica_db");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaDataSources replicaDataSources;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RestService restService;
+
+    // A read-only call followed by a write in one request, like a controller calling two services would
+    @TestConfiguration
+    static class RoutingTestControllerConfig {
+
+        @RestController
+        static class RoutingTestController {
+
+            @Autowired
+            private JdbcTemplate jdbcTemplate;
+
+            @Autowired
+            private PlatformTransactionManager transactionManager;
+
+            @GetMapping("/test/routing/read-then-write")
+            public List<String> readThenWrite() {
+                TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                readOnly.setReadOnly(true);
+                String readDatabase = readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+
+                TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+                String writeDatabase = readWrite.execute(status -> {
+                    jdbcTemplate.update("UPDATE reservation SET price = price WHERE false");
+                    return jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+                });
+                return List.of(readDatabase, writeDatabase);
+            }
+
+        }
+
+    }
+
+    @AfterEach
+    public void restoreReplica() {
+        replicaDataSources.getReplicas().forEach(replica -> replica.lagMeasured(0, true));
+    }
+
+    @Test
+    public void testReadOnlyTransactionUsesReplica() {
+        assertEquals("devops_reservation_replica_db", currentDatabase(true));
+        assertEquals("devops_reservation_db", currentDatabase(false));
+    }
+
+    @Test
+    public void testReadOnlyTransactionFallsBackToPrimaryWhenReplicaUnavailable() {
+        replicaDataSources.getReplicas().forEach(ReplicaDataSource::markUnavailable);
+
+        assertEquals("devops_reservation_db", currentDatabase(true));
+    }
+
+    @Test
+    public void testLagCheckKeepsCaughtUpReplicaAvailable() {
+        replicaLagMonitor.checkReplicationLag();
+
+        ReplicaDataSource replica = replicaDataSources.getReplicas().get(0);
+        assertEquals(true, replica.isAvailable());
+        assertEquals(0.0, replica.getLagSeconds());
+    }
+
+    // With open-in-view the request's EntityManager keeps the replica connection of the first transaction for the write.
+    // Runs outside the class-level test transaction, its EntityManager would otherwise stand in for the request's one.
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testWriteAfterReadOnlyCallInSameRequestUsesPrimary() throws Exception {
+        authenticateGuest();
+
+        mockMvc.perform(get("/test/routing/read-then-write"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("devops_reservation_replica_db"))
+                .andExpect(jsonPath("$[1]").value("devops_reservation_db"));
+    }
+
+    // A new transaction, the test class itself runs inside a read-write one
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+    }
+
+}
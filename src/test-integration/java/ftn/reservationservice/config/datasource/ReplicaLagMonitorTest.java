@@ -0,0 +1,102 @@
+package ftn.reservationservice.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A real streaming standby of its own primary, stopping the primary leaves the standby fully replayed but disconnected
+@Testcontainers
+public class ReplicaLagMonitorTest {
+
+    private static final String DATABASE = "devops_reservation_db";
+    private static final String USERNAME = "devops_ftn";
+    private static final String PASSWORD = "devops_ftn";
+
+    // removed by the testcontainers reaper, closing it before the extension stops the containers would fail
+    private final Network network = Network.newNetwork();
+
+    @Container
+    private final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:12.6-alpine")
+            .withDatabaseName(DATABASE)
+            .withUsername(USERNAME)
+            .withPassword(PASSWORD)
+            .withNetwork(network)
+            .withNetworkAliases("primary")
+            .withCopyToContainer(Transferable.of("echo \"host replication all all md5\" >> \"$PGDATA/pg_hba.conf\"\n"),
+                    "/docker-entrypoint-initdb.d/replication.sh");
+
+    @Container
+    private final GenericContainer<?> standby = new GenericContainer<>("postgres:12.6-alpine")
+            .dependsOn(primary)
+            .withNetwork(network)
+            .withEnv("PGPASSWORD", PASSWORD)
+            .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"))
+            .withCommand("sh", "-c", "until pg_basebackup -h primary -U " + USERNAME + " -D /tmp/standby -R -X stream; do sleep 1; done "
+                    + "&& chmod 700 /tmp/standby && exec postgres -D /tmp/standby")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept read only connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    private ReplicaDataSources replicaDataSources;
+
+    private ReplicaDataSource replica;
+
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    public void setup() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://" + standby.getHost() + ":" + standby.getMappedPort(5432) + "/" + DATABASE);
+        dataSource.setUsername(USERNAME);
+        dataSource.setPassword(PASSWORD);
+        dataSource.setReadOnly(true);
+        replica = new ReplicaDataSource("replica-0", dataSource);
+        replicaDataSources = new ReplicaDataSources(List.of(replica));
+        replicaLagMonitor = new ReplicaLagMonitor(replicaDataSources, new SimpleMeterRegistry(), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        replicaDataSources.close();
+    }
+
+    @Test
+    public void testReplicaWithStoppedWalReceiverIsTakenOutOfRotation() throws InterruptedException {
+        assertTrue(awaitAvailable(true), "streaming standby should be available");
+        assertEquals(0.0, replica.getLagSeconds());
+
+        primary.stop();
+
+        assertTrue(awaitAvailable(false), "standby without a WAL receiver should be unavailable");
+    }
+
+    // the receiver needs a moment to reach streaming after startup and to notice the primary is gone
+    private boolean awaitAvailable(boolean available) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            replicaLagMonitor.checkReplicationLag();
+            if (replica.isAvailable() == available) {
+                return true;
+            }
+            Thread.sleep(500);
+        }
+        return false;
+    }
+
+}
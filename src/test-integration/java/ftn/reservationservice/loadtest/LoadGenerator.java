@@ -0,0 +1,179 @@
+package ftn.reservationservice.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Closed-loop workload: every worker picks the next operation by weight, sends it and waits for the response
+// before sending another one. Latencies are kept per worker and merged once the run is over.
+public class LoadGenerator {
+
+    private final HttpClient httpClient;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final int concurrency;
+
+    public LoadGenerator(List<Operation> operations, int concurrency) {
+        this.operations = operations;
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.concurrency = concurrency;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public Report run(Duration duration) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            long start = System.nanoTime();
+            long deadline = start + duration.toNanos();
+            List<Future<Map<String, Recording>>> results = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                results.add(workers.submit(() -> work(deadline)));
+            }
+
+            Map<String, Recording> recordings = new TreeMap<>();
+            for (Future<Map<String, Recording>> result : results) {
+                try {
+                    result.get().forEach((endpoint, recording) -> recordings.merge(endpoint, recording, Recording::merge));
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Load generator worker failed", e.getCause());
+                }
+            }
+            return new Report(recordings, Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private Map<String, Recording> work(long deadline) {
+        Map<String, Recording> recordings = new LinkedHashMap<>();
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            Operation operation = nextOperation();
+            Recording recording = recordings.computeIfAbsent(operation.endpoint(), endpoint -> new Recording());
+            HttpRequest request = operation.request().get();
+            long sentAt = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                recording.record(System.nanoTime() - sentAt, response.statusCode() / 100 == 2 ? null : "HTTP " + response.statusCode());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                recording.record(System.nanoTime() - sentAt, e.getClass().getSimpleName());
+            }
+        }
+        return recordings;
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            pick -= operation.weight();
+            if (pick < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Operation weights must be positive");
+    }
+
+    // endpoint is the label results are grouped by, so requests to different ids of one route share it
+    public record Operation(String endpoint, int weight, Supplier<HttpRequest> request) {
+    }
+
+    static class Recording {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private final Map<String, Integer> errors = new TreeMap<>();
+
+        void record(long latencyNanos, String error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (error != null) {
+                errors.merge(error, 1, Integer::sum);
+            }
+        }
+
+        Recording merge(Recording other) {
+            latencies = Arrays.copyOf(latencies, count + other.count);
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            other.errors.forEach((error, occurrences) -> errors.merge(error, occurrences, Integer::sum));
+            return this;
+        }
+
+        int errorCount() {
+            return errors.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+    }
+
+    public static class Report {
+
+        private final Map<String, Recording> recordings;
+        private final Duration elapsed;
+
+        Report(Map<String, Recording> recordings, Duration elapsed) {
+            this.recordings = recordings;
+            this.elapsed = elapsed;
+            recordings.values().forEach(recording -> Arrays.sort(recording.latencies, 0, recording.count));
+        }
+
+        public long getRequests() {
+            return recordings.values().stream().mapToLong(recording -> recording.count).sum();
+        }
+
+        public long getRequests(String endpoint) {
+            Recording recording = recordings.get(endpoint);
+            return recording == null ? 0 : recording.count;
+        }
+
+        public double getErrorRate(String endpoint) {
+            Recording recording = recordings.get(endpoint);
+            return recording == null || recording.count == 0 ? 0 : (double) recording.errorCount() / recording.count;
+        }
+
+        // nearest-rank percentile in milliseconds
+        public double getLatencyMillis(String endpoint, double percentile) {
+            Recording recording = recordings.get(endpoint);
+            if (recording == null || recording.count == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile * recording.count);
+            return recording.latencies[Math.max(rank, 1) - 1] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsed.toNanos() / 1_000_000_000.0;
+            StringBuilder report = new StringBuilder(String.format("%-45s %9s %9s %8s %9s %9s %9s%n",
+                    "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms"));
+            recordings.forEach((endpoint, recording) -> {
+                report.append(String.format("%-45s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f%n",
+                        endpoint, recording.count, recording.count / seconds, getErrorRate(endpoint) * 100,
+                        getLatencyMillis(endpoint, 0.5), getLatencyMillis(endpoint, 0.99), getLatencyMillis(endpoint, 0.999)));
+                recording.errors.forEach((error, occurrences) -> report.append(String.format("    %-41s %9d%n", error, occurrences)));
+            });
+            report.append(String.format("%-45s %9d %9.1f over %.1f s", "total", getRequests(), getRequests() / seconds, seconds));
+            return report.toString();
+        }
+
+    }
+
+}
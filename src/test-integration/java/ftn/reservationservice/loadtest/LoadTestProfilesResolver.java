@@ -0,0 +1,22 @@
+package ftn.reservationservice.loadtest;
+
+import org.springframework.test.context.ActiveProfilesResolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// loadtest plus the comma separated -Dloadtest.profiles, so one harness compares e.g. platform and virtual threads
+public class LoadTestProfilesResolver implements ActiveProfilesResolver {
+
+    @Override
+    public String[] resolve(Class<?> testClass) {
+        List<String> profiles = new ArrayList<>(List.of("loadtest"));
+        Arrays.stream(System.getProperty("loadtest.profiles", "").split(","))
+                .map(String::trim)
+                .filter(profile -> !profile.isEmpty())
+                .forEach(profiles::add);
+        return profiles.toArray(String[]::new);
+    }
+
+}
@@ -0,0 +1,223 @@
+package ftn.reservationservice.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ftn.reservationservice.ReservationServiceApplication;
+import ftn.reservationservice.domain.dtos.LodgeAvailabilityPeriodDto;
+import ftn.reservationservice.domain.dtos.LodgeDto;
+import ftn.reservationservice.domain.dtos.RequestForReservationCreateRequest;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the request-for-reservation API over real HTTP with user-service and hotels-service replaced by
+// StubRemoteServices, Postgres and RabbitMQ run in containers. Tuned with -Dloadtest.* system properties, e.g. the
+// virtual thread comparison on Java 21: -Dloadtest.concurrency=2000 with and without -Dloadtest.profiles=virtual-threads
+@Slf4j
+@Tag("benchmark")
+@Testcontainers
+@SpringBootTest(classes = ReservationServiceApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(resolver = LoadTestProfilesResolver.class)
+@DirtiesContext
+public class RequestForReservationLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 32);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("loadtest.warmup", "PT15S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+    private static final Duration REMOTE_LATENCY = Duration.parse(System.getProperty("loadtest.remote-latency", "PT0.02S"));
+    private static final Duration REMOTE_LATENCY_JITTER = Duration.parse(System.getProperty("loadtest.remote-latency-jitter", "PT0.01S"));
+
+    private static final int HOSTS = 20;
+    private static final int LODGES = 200;
+    private static final int GUESTS = 500;
+    private static final LocalDateTime AVAILABLE_FROM = LocalDateTime.parse("2030-01-01T00:00:00");
+    private static final int AVAILABLE_DAYS = 365;
+
+    private static final String API = "/api/reservation/requestforreservation";
+    private static final String CREATE = "POST " + API;
+
+    private static final List<UUID> hostIds = new ArrayList<>();
+    private static final List<UUID> guestIds = new ArrayList<>();
+    private static final List<UUID> lodgeIds = new ArrayList<>();
+    private static final StubRemoteServices remoteServices = startRemoteServices();
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:12.6-alpine")
+            .withDatabaseName("devops_reservation_db")
+            .withUsername("devops_ftn")
+            .withPassword("devops_ftn");
+
+    @Container
+    private static final RabbitMQContainer rabbitMQContainer = new RabbitMQContainer("rabbitmq:3.12-management-alpine");
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.rabbitmq.host", rabbitMQContainer::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMQContainer::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMQContainer::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMQContainer::getAdminPassword);
+        registry.add("user.service", remoteServices::getUrl);
+        registry.add("lodge.service", remoteServices::getUrl);
+    }
+
+    @AfterAll
+    static void stopRemoteServices() {
+        remoteServices.close();
+    }
+
+    @Test
+    public void loadRequestForReservationApi() throws InterruptedException {
+        Map<UUID, String> tokens = new HashMap<>();
+        hostIds.forEach(id -> tokens.put(id, token(id, "HOST")));
+        guestIds.forEach(id -> tokens.put(id, token(id, "GUEST")));
+
+        LoadGenerator loadGenerator = new LoadGenerator(List.of(
+                new LoadGenerator.Operation(CREATE, 30, () -> post(API, tokens.get(any(guestIds)), randomCreateRequest())),
+                new LoadGenerator.Operation("GET " + API + "/all/guest", 20, () -> get(API + "/all/guest", tokens.get(any(guestIds)))),
+                new LoadGenerator.Operation("GET " + API + "/page/guest", 20, () -> get(API + "/page/guest", tokens.get(any(guestIds)))),
+                new LoadGenerator.Operation("GET " + API + "/all/host", 15, () -> get(API + "/all/host", tokens.get(any(hostIds)))),
+                new LoadGenerator.Operation("GET " + API + "/page/host", 15, () -> get(API + "/page/host", tokens.get(any(hostIds))))
+        ), CONCURRENCY);
+
+        log.info("Warming up for {} with {} concurrent clients, remote latency {} + up to {}", WARMUP, CONCURRENCY, REMOTE_LATENCY, REMOTE_LATENCY_JITTER);
+        loadGenerator.run(WARMUP);
+        LoadGenerator.Report report = loadGenerator.run(DURATION);
+        log.info("Request for reservation load test results:\n{}", report);
+
+        assertTrue(report.getRequests(CREATE) > 0);
+    }
+
+    private static StubRemoteServices startRemoteServices() {
+        Map<UUID, LodgeDto> lodges = new HashMap<>();
+        Map<UUID, List<LodgeAvailabilityPeriodDto>> availabilityPeriods = new HashMap<>();
+        for (int i = 0; i < HOSTS; i++) {
+            hostIds.add(UUID.randomUUID());
+        }
+        for (int i = 0; i < GUESTS; i++) {
+            guestIds.add(UUID.randomUUID());
+        }
+        for (int i = 0; i < LODGES; i++) {
+            UUID lodgeId = UUID.randomUUID();
+            lodgeIds.add(lodgeId);
+            // manual approval keeps requests pending, so random dates never collide with an approved request
+            lodges.put(lodgeId, LodgeDto.builder()
+                    .id(lodgeId)
+                    .ownerId(hostIds.get(i % HOSTS))
+                    .name("Lodge " + i)
+                    .location("Novi Sad")
+                    .minimalGuestNumber(1)
+                    .maximalGuestNumber(6)
+                    .approvalType("MANUAL")
+                    .build());
+            availabilityPeriods.put(lodgeId, List.of(LodgeAvailabilityPeriodDto.builder()
+                    .id(UUID.randomUUID())
+                    .lodgeId(lodgeId)
+                    .dateFrom(AVAILABLE_FROM)
+                    .dateTo(AVAILABLE_FROM.plusDays(AVAILABLE_DAYS))
+                    .priceType(i % 2 == 0 ? "PER_GUEST" : "PER_LODGE")
+                    .price(100)
+                    .build()));
+        }
+        Set<UUID> hosts = new HashSet<>(hostIds);
+        try {
+            return new StubRemoteServices(lodges, availabilityPeriods, hosts, REMOTE_LATENCY, REMOTE_LATENCY_JITTER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private RequestForReservationCreateRequest randomCreateRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime dateFrom = AVAILABLE_FROM.plusDays(random.nextInt(AVAILABLE_DAYS - 7));
+        return RequestForReservationCreateRequest.builder()
+                .lodgeId(any(lodgeIds))
+                .dateFrom(dateFrom)
+                .dateTo(dateFrom.plusDays(2 + random.nextInt(5)))
+                .numberOfGuests(1 + random.nextInt(6))
+                .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, Object body) {
+        try {
+            return request(path, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private String token(UUID userId, String role) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(role.toLowerCase() + "-" + userId)
+                .claim("role", role)
+                .claim("userId", userId.toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.HOURS.toMillis(2)))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+    }
+
+    private static <T> T any(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+}
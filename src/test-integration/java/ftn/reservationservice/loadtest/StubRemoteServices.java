@@ -0,0 +1,116 @@
+package ftn.reservationservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ftn.reservationservice.domain.dtos.LodgeAvailabilityPeriodDto;
+import ftn.reservationservice.domain.dtos.LodgeDto;
+import ftn.reservationservice.domain.dtos.UserDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Stand-in for user-service and hotels-service, answering the single-entity lookups RestService makes
+// after a configurable latency. Every user id not registered as a host is served as a guest.
+public class StubRemoteServices implements AutoCloseable {
+
+    private static final String USERS = "/api/users/";
+    private static final String LODGES = "/api/lodge/interservice/";
+    private static final String LODGE_AVAILABILITY_PERIODS = "/api/lodge/availability/all/interservice/";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Map<UUID, LodgeDto> lodges;
+    private final Map<UUID, List<LodgeAvailabilityPeriodDto>> availabilityPeriods;
+    private final Set<UUID> hostIds;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public StubRemoteServices(Map<UUID, LodgeDto> lodges, Map<UUID, List<LodgeAvailabilityPeriodDto>> availabilityPeriods,
+                              Set<UUID> hostIds, Duration latency, Duration jitter) throws IOException {
+        this.lodges = lodges;
+        this.availabilityPeriods = availabilityPeriods;
+        this.hostIds = hostIds;
+        this.latencyNanos = latency.toNanos();
+        this.jitterNanos = jitter.toNanos();
+        // latency is emulated by sleeping, so a thread per in-flight call keeps the stub from becoming the bottleneck
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(executor);
+        server.createContext(USERS, exchange -> respond(exchange, USERS, this::getUser));
+        server.createContext(LODGES, exchange -> respond(exchange, LODGES, lodges::get));
+        server.createContext(LODGE_AVAILABILITY_PERIODS, exchange -> respond(exchange, LODGE_AVAILABILITY_PERIODS, availabilityPeriods::get));
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private UserDto getUser(UUID id) {
+        String role = hostIds.contains(id) ? "HOST" : "GUEST";
+        return UserDto.builder()
+                .id(id)
+                .username(role.toLowerCase() + "-" + id)
+                .email(id + "@loadtest.local")
+                .firstName("Load")
+                .lastName("Test")
+                .role(role)
+                .build();
+    }
+
+    private void respond(HttpExchange exchange, String prefix, Function<UUID, Object> lookup) throws IOException {
+        try {
+            sleepLatency();
+            Object body;
+            try {
+                body = lookup.apply(UUID.fromString(exchange.getRequestURI().getPath().substring(prefix.length())));
+            } catch (IllegalArgumentException e) {
+                body = null;
+            }
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, json.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sleepLatency() {
+        long nanos = latencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,32 @@
+package ftn.reservationservice.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Collects the SQL Hibernate sends while recording is started on the current thread, statements pass through unchanged
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<Set<String>> recorded = new ThreadLocal<>();
+
+    public static void start() {
+        recorded.set(new LinkedHashSet<>());
+    }
+
+    public static Set<String> stop() {
+        Set<String> statements = recorded.get();
+        recorded.remove();
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Set<String> statements = recorded.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+}
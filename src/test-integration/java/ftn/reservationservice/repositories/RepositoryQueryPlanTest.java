@@ -0,0 +1,233 @@
+package ftn.reservationservice.repositories;
+
+import ftn.reservationservice.AuthPostgresIntegrationTest;
+import ftn.reservationservice.domain.dtos.LodgeDto;
+import ftn.reservationservice.domain.dtos.UserDto;
+import ftn.reservationservice.domain.entities.RequestForReservationStatus;
+import ftn.reservationservice.domain.entities.ReservationStatus;
+import ftn.reservationservice.services.RequestForReservationService;
+import ftn.reservationservice.services.ReservationService;
+import ftn.reservationservice.services.RestService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+// Runs every repository query (and the keyset pages the services build) against realistically sized, analyzed tables,
+// records the SQL Hibernate actually generates and fails when its plan contains a sequential scan, which means an
+// index is missing or unusable. Plans are the generic ones a prepared statement settles on after its first executions,
+// so they don't depend on the sample parameter values.
+public class RepositoryQueryPlanTest extends AuthPostgresIntegrationTest {
+
+    private static final int LODGES = 2_000;
+    private static final int GUESTS = 5_000;
+    private static final int OWNERS = 500;
+    private static final int ROWS_PER_LODGE = 10;
+
+    private static final RequestForReservationStatus[] REQUEST_STATUSES = RequestForReservationStatus.values();
+
+    @DynamicPropertySource
+    static void registerStatementInspector(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector", RecordingStatementInspector.class::getName);
+    }
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RequestForReservationRepository requestForReservationRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RequestForReservationService requestForReservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private RestService restService;
+
+    private final List<UUID> lodgeIds = new ArrayList<>();
+    private final List<UUID> guestIds = new ArrayList<>();
+    private final List<UUID> ownerIds = new ArrayList<>();
+
+    @Test
+    public void testRepositoryQueriesDoNotFallBackToSeqScan() {
+        seed();
+        authenticateHost();
+        UUID lodgeId = lodgeIds.get(LODGES / 2);
+        UUID guestId = guestIds.get(GUESTS / 2);
+        UUID ownerId = ownerIds.get((LODGES / 2) % OWNERS);
+        UUID id = jdbcTemplate.queryForObject("SELECT id FROM reservation LIMIT 1", UUID.class);
+        UUID requestId = jdbcTemplate.queryForObject("SELECT id FROM request_for_reservation LIMIT 1", UUID.class);
+        LocalDateTime dateFrom = LocalDateTime.parse("2030-01-01T00:00:00");
+        LocalDateTime dateTo = LocalDateTime.parse("2030-02-01T00:00:00");
+
+        // streamAllBy is left out, the full export reads the whole table by design
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("ReservationRepository.findByStatusAndLodgeId", () -> reservationRepository.findByStatusAndLodgeId(ReservationStatus.ACTIVE, lodgeId));
+        queries.put("ReservationRepository.countByGuestIdAndStatus", () -> reservationRepository.countByGuestIdAndStatus(guestId, ReservationStatus.CANCELED));
+        queries.put("ReservationRepository.findDtosByOwnerId", () -> reservationRepository.findDtosByOwnerId(ownerId));
+        queries.put("ReservationRepository.findDtosByGuestId", () -> reservationRepository.findDtosByGuestId(guestId));
+        queries.put("ReservationRepository.findDtosByLodgeId", () -> reservationRepository.findDtosByLodgeId(lodgeId));
+        queries.put("ReservationRepository.findDtoById", () -> reservationRepository.findDtoById(id));
+        queries.put("ReservationRepository.streamByOwnerIdOrderByDateFromAscIdAsc", () -> {
+            try (Stream<?> reservations = reservationRepository.streamByOwnerIdOrderByDateFromAscIdAsc(ownerId)) {
+                reservations.count();
+            }
+        });
+        queries.put("ReservationRepository.findActiveReservationsByGuestIdAndFutureDate", () -> reservationRepository.findActiveReservationsByGuestIdAndFutureDate(guestId, dateFrom));
+        queries.put("ReservationRepository.existsByGuestIdAndLodgeId", () -> reservationRepository.existsByGuestIdAndLodgeId(guestId, lodgeId));
+        queries.put("ReservationRepository.existsByGuestIdAndOwnerId", () -> reservationRepository.existsByGuestIdAndOwnerId(guestId, ownerId));
+        queries.put("ReservationRepository.existsByLodgeIdAndDateRangeOverlap", () -> reservationRepository.existsByLodgeIdAndDateRangeOverlap(lodgeId, dateFrom, dateTo));
+        queries.put("ReservationRepository.existsActiveByLodgeIdAndDateRangeOverlap", () -> reservationRepository.existsActiveByLodgeIdAndDateRangeOverlap(lodgeId, dateFrom, dateTo));
+        queries.put("ReservationService.getMyReservationsHostPage", () -> {
+            loggedInAs(ownerId, "HOST");
+            String cursor = reservationService.getMyReservationsHostPage(null, null, null, null, 1).getNextCursor();
+            reservationService.getMyReservationsHostPage(ReservationStatus.ACTIVE, dateFrom, dateTo, cursor, 1);
+        });
+        queries.put("ReservationService.getMyReservationsGuestPage", () -> {
+            loggedInAs(guestId, "GUEST");
+            String cursor = reservationService.getMyReservationsGuestPage(null, null, null, null, 1).getNextCursor();
+            reservationService.getMyReservationsGuestPage(ReservationStatus.ACTIVE, dateFrom, dateTo, cursor, 1);
+        });
+        queries.put("ReservationService.getReservationsForLodgePage", () -> {
+            loggedInAs(ownerId, "HOST");
+            when(restService.getLodgeById(lodgeId)).thenReturn(LodgeDto.builder().id(lodgeId).ownerId(ownerId).build());
+            String cursor = reservationService.getReservationsForLodgePage(lodgeId, null, null, null, null, 1).getNextCursor();
+            reservationService.getReservationsForLodgePage(lodgeId, ReservationStatus.ACTIVE, dateFrom, dateTo, cursor, 1);
+        });
+        queries.put("RequestForReservationRepository.findByLodgeId", () -> requestForReservationRepository.findByLodgeId(lodgeId));
+        queries.put("RequestForReservationRepository.findDtosByOwnerId", () -> requestForReservationRepository.findDtosByOwnerId(ownerId));
+        queries.put("RequestForReservationRepository.findDtosByGuestId", () -> requestForReservationRepository.findDtosByGuestId(guestId));
+        queries.put("RequestForReservationRepository.findDtoById", () -> requestForReservationRepository.findDtoById(requestId));
+        queries.put("RequestForReservationRepository.existsByLodgeIdAndStatusAndDateRangeOverlap", () -> requestForReservationRepository.existsByLodgeIdAndStatusAndDateRangeOverlap(lodgeId, RequestForReservationStatus.APPROVED, dateFrom, dateTo));
+        queries.put("RequestForReservationRepository.existsByLodgeIdAndDateRangeOverlap", () -> requestForReservationRepository.existsByLodgeIdAndDateRangeOverlap(lodgeId, dateFrom, dateTo));
+        queries.put("RequestForReservationRepository.denyWaitingRequestsWithOverlappingDateRange", () -> requestForReservationRepository.denyWaitingRequestsWithOverlappingDateRange(lodgeId, dateFrom, dateTo));
+        queries.put("RequestForReservationRepository.denyWaitingRequestsCompetingWithApproved", () -> requestForReservationRepository.denyWaitingRequestsCompetingWithApproved(lodgeId, requestId, dateFrom, dateTo));
+        queries.put("RequestForReservationService.getHostReservationRequestsPage", () -> {
+            loggedInAs(ownerId, "HOST");
+            String cursor = requestForReservationService.getHostReservationRequestsPage(null, null, null, null, 1).getNextCursor();
+            requestForReservationService.getHostReservationRequestsPage(RequestForReservationStatus.APPROVED, dateFrom, dateTo, cursor, 1);
+        });
+        queries.put("RequestForReservationService.getGuestReservationRequestsPage", () -> {
+            loggedInAs(guestId, "GUEST");
+            String cursor = requestForReservationService.getGuestReservationRequestsPage(null, null, null, null, 1).getNextCursor();
+            requestForReservationService.getGuestReservationRequestsPage(RequestForReservationStatus.APPROVED, dateFrom, dateTo, cursor, 1);
+        });
+        // last, it removes the rows the owner's pages above read
+        queries.put("ReservationRepository.deleteAllByOwnerId", () -> reservationRepository.deleteAllByOwnerId(ownerId));
+
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        List<String> seqScans = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            Set<String> statements = record(query);
+            assertTrue(!statements.isEmpty(), name + " didn't reach the database");
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (plan.contains("Seq Scan")) {
+                    seqScans.add(name + ":\n" + sql + "\n" + plan);
+                }
+            }
+        });
+        assertTrue(seqScans.isEmpty(), "Queries planned as sequential scans:\n" + String.join("\n\n", seqScans));
+    }
+
+    // Flushing inside the recording captures the statements derived deletes only issue at flush time
+    private Set<String> record(Runnable query) {
+        RecordingStatementInspector.start();
+        Set<String> statements;
+        try {
+            query.run();
+            entityManager.flush();
+        } finally {
+            statements = RecordingStatementInspector.stop();
+            entityManager.clear();
+        }
+        return statements;
+    }
+
+    private String explain(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(c);
+            }
+        }
+        jdbcTemplate.execute("PREPARE planned_query AS " + numbered);
+        try {
+            String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN EXECUTE planned_query" + arguments, String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE planned_query");
+        }
+    }
+
+    private void loggedInAs(UUID userId, String role) {
+        when(restService.getUserById(any(UUID.class))).thenReturn(UserDto.builder().id(userId).role(role).build());
+    }
+
+    private void seed() {
+        for (int i = 0; i < LODGES; i++) {
+            lodgeIds.add(UUID.randomUUID());
+        }
+        for (int i = 0; i < GUESTS; i++) {
+            guestIds.add(UUID.randomUUID());
+        }
+        for (int i = 0; i < OWNERS; i++) {
+            ownerIds.add(UUID.randomUUID());
+        }
+
+        LocalDateTime start = LocalDateTime.parse("2030-01-01T00:00:00");
+        List<Object[]> reservations = new ArrayList<>();
+        List<Object[]> requests = new ArrayList<>();
+        int row = 0;
+        for (int lodge = 0; lodge < LODGES; lodge++) {
+            UUID ownerId = ownerIds.get(lodge % OWNERS);
+            for (int stay = 0; stay < ROWS_PER_LODGE; stay++, row++) {
+                // stays of one lodge never overlap, so ACTIVE rows satisfy reservation_active_no_overlap
+                Timestamp dateFrom = Timestamp.valueOf(start.plusDays(stay * 3L));
+                Timestamp dateTo = Timestamp.valueOf(start.plusDays(stay * 3L + 2));
+                UUID guestId = guestIds.get(row % GUESTS);
+                UUID requestId = UUID.randomUUID();
+                requests.add(new Object[]{requestId, dateFrom, dateTo, guestId, lodgeIds.get(lodge), 2, ownerId, 99.99,
+                        REQUEST_STATUSES[row % REQUEST_STATUSES.length].name()});
+                reservations.add(new Object[]{UUID.randomUUID(), lodgeIds.get(lodge), guestId, ownerId, requestId, 99.99,
+                        dateFrom, dateTo, 2, row % 5 == 0 ? "CANCELED" : "ACTIVE"});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into request_for_reservation (id, date_from, date_to, guest_id, lodge_id, number_of_guests, owner_id, price, status) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", requests);
+        jdbcTemplate.batchUpdate("insert into reservation (id, lodge_id, guest_id, owner_id, request_for_reservation_id, price, date_from, date_to, number_of_guests, status) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", reservations);
+        jdbcTemplate.execute("analyze reservation");
+        jdbcTemplate.execute("analyze request_for_reservation");
+    }
+
+}
@@ -0,0 +1,97 @@
+package ftn.reservationservice.repositories;
+
+import ftn.reservationservice.AuthPostgresIntegrationTest;
+import ftn.reservationservice.domain.entities.RequestForReservationStatus;
+import ftn.reservationservice.services.RestService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@Tag("benchmark")
+public class RequestForReservationOverlapBenchmarkTest extends AuthPostgresIntegrationTest {
+
+    private static final int REQUESTS_PER_LODGE = 10_000;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+
+    private static final UUID LODGE_ID = UUID.fromString("b86553e1-2552-41cb-9e40-7ef87c424999");
+    private static final UUID OWNER_ID = UUID.fromString("e49fcab5-d45b-4556-9d91-14e58177fea6");
+    private static final RequestForReservationStatus[] STATUSES = RequestForReservationStatus.values();
+
+    @Autowired
+    private RequestForReservationRepository requestForReservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private RestService restService;
+
+    @BeforeEach
+    public void setup() {
+        LocalDateTime start = LocalDateTime.parse("2020-01-01T00:00:00");
+        List<Object[]> rows = new ArrayList<>(REQUESTS_PER_LODGE);
+        for (int i = 0; i < REQUESTS_PER_LODGE; i++) {
+            LocalDateTime dateFrom = start.plusDays(i);
+            rows.add(new Object[]{
+                    UUID.randomUUID(), Timestamp.valueOf(dateFrom), Timestamp.valueOf(dateFrom.plusDays(2)),
+                    UUID.randomUUID(), LODGE_ID, 2, OWNER_ID, 99.99, STATUSES[i % STATUSES.length].name()
+            });
+        }
+        jdbcTemplate.batchUpdate("insert into request_for_reservation (id, date_from, date_to, guest_id, lodge_id, number_of_guests, owner_id, price, status) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("analyze request_for_reservation");
+    }
+
+    @Test
+    public void benchmarkApprovedRequestOverlapCheck() {
+        LocalDateTime dateFrom = LocalDateTime.parse("2045-01-01T00:00:00");
+        LocalDateTime dateTo = dateFrom.plusDays(5);
+
+        BooleanSupplier inMemoryScan = () -> requestForReservationRepository.findByLodgeId(LODGE_ID).stream()
+                .anyMatch(r -> r.getStatus() == RequestForReservationStatus.APPROVED
+                        && r.getDateTo().isAfter(dateFrom) && r.getDateFrom().isBefore(dateTo));
+        BooleanSupplier existsQuery = () -> requestForReservationRepository.existsByLodgeIdAndStatusAndDateRangeOverlap(
+                LODGE_ID, RequestForReservationStatus.APPROVED, dateFrom, dateTo);
+
+        assertEquals(inMemoryScan.getAsBoolean(), existsQuery.getAsBoolean());
+
+        double inMemoryScanMillis = measure(inMemoryScan);
+        double existsQueryMillis = measure(existsQuery);
+
+        log.info("Approved request overlap check with {} requests per lodge: findByLodgeId + filter {} ms/op, exists query {} ms/op",
+                REQUESTS_PER_LODGE, String.format("%.3f", inMemoryScanMillis), String.format("%.3f", existsQueryMillis));
+    }
+
+    private double measure(BooleanSupplier check) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            check.getAsBoolean();
+            entityManager.clear();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            check.getAsBoolean();
+            entityManager.clear();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS;
+    }
+
+}
@@ -0,0 +1,115 @@
+package ftn.reservationservice.repositories;
+
+import com.sun.management.ThreadMXBean;
+import ftn.reservationservice.AuthPostgresIntegrationTest;
+import ftn.reservationservice.domain.dtos.ReservationDto;
+import ftn.reservationservice.domain.entities.QReservation;
+import ftn.reservationservice.domain.entities.Reservation;
+import ftn.reservationservice.domain.mappers.ReservationMapper;
+import ftn.reservationservice.services.RestService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@Tag("benchmark")
+// Without the inherited test transaction every inTransaction call starts and ends its own transaction,
+// otherwise all calls would share one persistence context and the entity path would measure identity-map hits
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReservationProjectionBenchmarkTest extends AuthPostgresIntegrationTest {
+
+    private static final int RESERVATIONS_PER_HOST = 5_000;
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    private static final UUID OWNER_ID = UUID.fromString("e49fcab5-d45b-4556-9d91-14e58177fea7");
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private RestService restService;
+
+    @BeforeEach
+    public void setup() {
+        LocalDateTime start = LocalDateTime.parse("2030-01-01T00:00:00");
+        List<Object[]> rows = new ArrayList<>(RESERVATIONS_PER_HOST);
+        for (int i = 0; i < RESERVATIONS_PER_HOST; i++) {
+            LocalDateTime dateFrom = start.plusDays(i);
+            rows.add(new Object[]{
+                    UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), OWNER_ID, UUID.randomUUID(), 99.99,
+                    Timestamp.valueOf(dateFrom), Timestamp.valueOf(dateFrom.plusDays(2)), 2, "ACTIVE"
+            });
+        }
+        jdbcTemplate.batchUpdate("insert into reservation (id, lodge_id, guest_id, owner_id, request_for_reservation_id, price, date_from, date_to, number_of_guests, status) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("analyze reservation");
+    }
+
+    // the seeded rows are committed, so they are removed explicitly instead of by the test rollback
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.update("delete from reservation where owner_id = ?", OWNER_ID);
+    }
+
+    @Test
+    public void benchmarkHostListingEntityVsProjection() {
+        Supplier<List<ReservationDto>> entitiesAndMapper = () -> {
+            List<Reservation> reservations = new ArrayList<>();
+            reservationRepository.findAll(QReservation.reservation.ownerId.eq(OWNER_ID)).forEach(reservations::add);
+            return ReservationMapper.INSTANCE.toDto(reservations);
+        };
+        Supplier<List<ReservationDto>> projection = () -> reservationRepository.findDtosByOwnerId(OWNER_ID);
+
+        assertEquals(RESERVATIONS_PER_HOST, inTransaction(entitiesAndMapper).size());
+        assertEquals(RESERVATIONS_PER_HOST, inTransaction(projection).size());
+
+        long entitiesAndMapperBytes = allocatedBytesPerOp(entitiesAndMapper);
+        long projectionBytes = allocatedBytesPerOp(projection);
+
+        log.info("Host listing with {} reservations: entities + mapper {} KB/op, DTO projection {} KB/op",
+                RESERVATIONS_PER_HOST, entitiesAndMapperBytes / 1024, projectionBytes / 1024);
+    }
+
+    // Each operation runs in its own transaction like a service call, so the persistence context is discarded in between
+    private long allocatedBytesPerOp(Supplier<List<ReservationDto>> listing) {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            inTransaction(listing);
+        }
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            inTransaction(listing);
+        }
+        return (threadMXBean.getCurrentThreadAllocatedBytes() - before) / MEASURED_ITERATIONS;
+    }
+
+    private List<ReservationDto> inTransaction(Supplier<List<ReservationDto>> listing) {
+        return transactionTemplate.execute(status -> listing.get());
+    }
+
+}
@@ -0,0 +1,60 @@
+package ftn.reservationservice.services;
+
+import ftn.reservationservice.AuthPostgresIntegrationTest;
+import ftn.reservationservice.domain.dtos.UserDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LoggedInUserServiceTest extends AuthPostgresIntegrationTest {
+
+    @Autowired
+    private LoggedInUserService loggedInUserService;
+
+    @Autowired
+    private RemoteCallExecutor remoteCallExecutor;
+
+    @MockBean
+    private RestService restService;
+
+    @BeforeEach
+    public void setup() {
+        authenticateGuest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testLoggedInUserIsMemoizedForRequestAcrossRemoteCallExecutor() {
+        UserDto guest = UserDto.builder()
+                .id(UUID.fromString("e49fcaa5-d45b-4556-9d91-13e58187fea6"))
+                .role("GUEST")
+                .build();
+        when(restService.getUserById(any(UUID.class))).thenReturn(guest);
+
+        UserDto first = RemoteCallExecutor.join(remoteCallExecutor.supplyAsync("getLoggedInUser", loggedInUserService::getLoggedInUser));
+        UserDto second = RemoteCallExecutor.join(remoteCallExecutor.supplyAsync("getLoggedInUser", loggedInUserService::getLoggedInUser));
+
+        assertSame(first, second);
+        assertSame(first, loggedInUserService.getLoggedInUser());
+        verify(restService, times(1)).getUserById(any(UUID.class));
+    }
+
+}
@@ -9,6 +9,7 @@ import ftn.reservationservice.exception.exceptions.ForbiddenException;
 import ftn.reservationservice.exception.exceptions.NotFoundException;
 import ftn.reservationservice.repositories.RequestForReservationRepository;
 import ftn.reservationservice.repositories.ReservationRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @Sql("/sql/reservation.sql")
@@ -39,6 +41,9 @@ public class RequestForReservationServiceTest extends AuthPostgresIntegrationTes
     @Autowired
     private ReservationRepository reservationRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @MockBean
     private RestService restService;
 
@@ -429,6 +434,33 @@ public class RequestForReservationServiceTest extends AuthPostgresIntegrationTes
 
     }
 
+    @Test
+    public void testUpdateRequestForReservationApprovedDeniesCompetingRequests() {
+        String lodgeOwnerId = "e49fcab5-d45b-4556-9d91-14e58177fea6";
+        mockOwner(lodgeOwnerId);
+
+        String lodgeId = "b86553e1-2552-41cb-9e40-7ef87c424850";
+        mockLodgeManualApproval(lodgeId, lodgeOwnerId);
+        mockLodgeAvailabilityPeriods(lodgeId);
+
+        String guestId = "e49fcaa5-d45b-4556-9d91-13e58187fea6";
+
+        String requestForReservationId = "b86553e1-2552-41cb-9e40-7eeeee424891";
+
+        RequestForReservationStatusUpdateRequest updateRequest = RequestForReservationStatusUpdateRequest.builder()
+                .status(RequestForReservationStatus.APPROVED)
+                .build();
+
+        requestForReservationService.update(UUID.fromString(requestForReservationId), updateRequest);
+
+        verify(notificationService).sendNotifications(List.of(guestId), NotificationType.RESERVATION_RESPONSE_REJECT);
+        entityManager.clear();
+        assertEquals(RequestForReservationStatus.APPROVED, requestForReservationRepository.findById(UUID.fromString(requestForReservationId)).get().getStatus());
+        assertEquals(RequestForReservationStatus.DENIED, requestForReservationRepository.findById(UUID.fromString("b86553e1-2552-41cb-9e40-7eeeee424833")).get().getStatus());
+        assertEquals(RequestForReservationStatus.WAITING_FOR_RESPONSE, requestForReservationRepository.findById(UUID.fromString("b86553e1-2552-41cb-9e40-7eeeee424894")).get().getStatus());
+
+    }
+
     @Test
     public void testUpdateRequestForReservationDeniedSuccessful() {
         String lodgeOwnerId = "e49fcab5-d45b-4556-9d91-14e58177fea6";
@@ -460,6 +492,34 @@ public class RequestForReservationServiceTest extends AuthPostgresIntegrationTes
 
     }
 
+    @Test
+    public void testUpdateRequestForReservationAvailabilityPeriodDeletedDeniesOverlappingRequests() {
+        String lodgeOwnerId = "e49fcab5-d45b-4556-9d91-14e58177fea6";
+        mockOwner(lodgeOwnerId);
+
+        String lodgeId = "b86553e1-2552-41cb-9e40-7ef87c424850";
+        mockLodgeManualApproval(lodgeId, lodgeOwnerId);
+        when(restService.getLodgeAvailabilityPeriods(any(UUID.class))).thenReturn(new ArrayList<>());
+
+        String guestId = "e49fcaa5-d45b-4556-9d91-13e58187fea6";
+
+        String requestForReservationId = "b86553e1-2552-41cb-9e40-7eeeee424891";
+
+        RequestForReservationStatusUpdateRequest updateRequest = RequestForReservationStatusUpdateRequest.builder()
+                .status(RequestForReservationStatus.APPROVED)
+                .build();
+
+        assertThrows(BadRequestException.class, () -> requestForReservationService.update(UUID.fromString(requestForReservationId),
+                updateRequest));
+
+        verify(notificationService).sendNotifications(List.of(guestId, guestId), NotificationType.RESERVATION_RESPONSE_REJECT);
+        entityManager.clear();
+        assertEquals(RequestForReservationStatus.DENIED, requestForReservationRepository.findById(UUID.fromString(requestForReservationId)).get().getStatus());
+        assertEquals(RequestForReservationStatus.DENIED, requestForReservationRepository.findById(UUID.fromString("b86553e1-2552-41cb-9e40-7eeeee424833")).get().getStatus());
+        assertEquals(RequestForReservationStatus.WAITING_FOR_RESPONSE, requestForReservationRepository.findById(UUID.fromString("b86553e1-2552-41cb-9e40-7eeeee424894")).get().getStatus());
+
+    }
+
     @Test
     public void testUpdateRequestForReservationRequestDoesntExist() {
         String lodgeOwnerId = "e49fcab5-d45b-4556-9d91-14e58177fea6";
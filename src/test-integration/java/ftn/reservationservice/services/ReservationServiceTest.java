@@ -2,9 +2,11 @@ package ftn.reservationservice.services;
 
 import ftn.reservationservice.AuthPostgresIntegrationTest;
 import ftn.reservationservice.domain.dtos.*;
+import ftn.reservationservice.domain.entities.RequestForReservation;
 import ftn.reservationservice.domain.entities.RequestForReservationStatus;
 import ftn.reservationservice.domain.entities.Reservation;
 import ftn.reservationservice.domain.entities.ReservationStatus;
+import ftn.reservationservice.exception.exceptions.BadRequestException;
 import ftn.reservationservice.exception.exceptions.ForbiddenException;
 import ftn.reservationservice.exception.exceptions.NotFoundException;
 import ftn.reservationservice.repositories.ReservationRepository;
@@ -12,8 +14,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -32,6 +38,12 @@ public class ReservationServiceTest extends AuthPostgresIntegrationTest {
     @Autowired
     private ReservationRepository reservationRepository;
 
+    @Autowired
+    private ReservationExportService reservationExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @MockBean
     private RestService restService;
 
@@ -74,6 +86,54 @@ public class ReservationServiceTest extends AuthPostgresIntegrationTest {
         assertEquals(2, response.size());
     }
 
+    @Test
+    public void testGetMyReservationsHostPageFollowsCursor() {
+        String lodgeOwnerId = "e49fcab5-d45b-4556-9d91-14e58177fea6";
+        mockOwner(lodgeOwnerId);
+
+        KeysetPageDto<ReservationDto> firstPage = reservationService.getMyReservationsHostPage(null, null, null, null, 1);
+
+        assertEquals(1, firstPage.getContent().size());
+        assertNotNull(firstPage.getNextCursor());
+
+        KeysetPageDto<ReservationDto> secondPage = reservationService.getMyReservationsHostPage(null, null, null, firstPage.getNextCursor(), 1);
+
+        assertEquals(1, secondPage.getContent().size());
+        assertNull(secondPage.getNextCursor());
+        assertNotEquals(firstPage.getContent().get(0).getId(), secondPage.getContent().get(0).getId());
+        assertFalse(secondPage.getContent().get(0).getDateFrom().isAfter(firstPage.getContent().get(0).getDateFrom()));
+    }
+
+    @Test
+    public void testExportByOwnerIdWritesOneLinePerReservation() throws IOException {
+        String lodgeOwnerId = "e49fcab5-d45b-4556-9d91-14e58177fea6";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        reservationExportService.exportByOwnerId(UUID.fromString(lodgeOwnerId), outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        for (String line : lines) {
+            assertTrue(line.contains("\"ownerId\":\"" + lodgeOwnerId + "\""));
+        }
+    }
+
+    @Test
+    public void testExportByOwnerIdWritesPlainNdjson() throws IOException {
+        String lodgeOwnerId = "e49fcab5-d45b-4556-9d91-14e58177fea6";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        reservationExportService.exportByOwnerId(UUID.fromString(lodgeOwnerId), outputStream);
+
+        String expected = "{\"id\":\"b86553e1-2552-41cb-9e40-7aaaaa424850\",\"lodgeId\":\"b86553e1-2552-41cb-9e40-7ef87c424850\"," +
+                "\"guestId\":\"e49fcaa5-d45b-4556-9d91-13e58187fea6\",\"ownerId\":\"e49fcab5-d45b-4556-9d91-14e58177fea6\",\"price\":99.99," +
+                "\"dateFrom\":\"2024-05-19\",\"dateTo\":\"2024-05-23\",\"numberOfGuests\":2,\"status\":\"ACTIVE\"}\n" +
+                "{\"id\":\"b86553e1-2552-41cb-9e40-7aaaaa424851\",\"lodgeId\":\"b86553e1-2552-41cb-9e40-7ef87c424850\"," +
+                "\"guestId\":\"e49fcaa5-d45b-4556-9d91-13e58187fef9\",\"ownerId\":\"e49fcab5-d45b-4556-9d91-14e58177fea6\",\"price\":99.99," +
+                "\"dateFrom\":\"2024-05-19\",\"dateTo\":\"2024-05-23\",\"numberOfGuests\":2,\"status\":\"CANCELED\"}\n";
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), outputStream.toByteArray());
+    }
+
     @Test
     public void testGetMyReservationsHostOwnerNotFound() {
         String lodgeOwnerId = "e49fcab5-d45b-4556-9d91-14e58177fea6";
@@ -350,6 +410,64 @@ public class ReservationServiceTest extends AuthPostgresIntegrationTest {
 
     }
 
+    @Test
+    public void testHasActiveReservationWithOverlappingDateRange() {
+        UUID lodgeId = UUID.fromString("b86553e1-2552-41cb-9e40-7ef87c424850");
+        LocalDateTime dateFrom = LocalDateTime.parse("2024-05-21T00:00:00");
+        LocalDateTime dateTo = LocalDateTime.parse("2024-05-25T00:00:00");
+
+        boolean response = reservationService.hasActiveReservationWithOverlappingDateRange(lodgeId, dateFrom, dateTo);
+
+        assertTrue(response);
+
+    }
+
+    @Test
+    public void testHasActiveReservationWithOverlappingDateRangeWhenCanceledElsewhere() {
+        UUID lodgeId = UUID.fromString("b86553e1-2552-41cb-9e40-7ef87c424850");
+        LocalDateTime dateFrom = LocalDateTime.parse("2024-05-21T00:00:00");
+        LocalDateTime dateTo = LocalDateTime.parse("2024-05-25T00:00:00");
+        assertTrue(reservationService.hasActiveReservationWithOverlappingDateRange(lodgeId, dateFrom, dateTo));
+
+        // canceled by another instance, this instance's index never hears about it
+        jdbcTemplate.update("update reservation set status = 'CANCELED' where id = 'b86553e1-2552-41cb-9e40-7aaaaa424850'");
+
+        boolean response = reservationService.hasActiveReservationWithOverlappingDateRange(lodgeId, dateFrom, dateTo);
+
+        assertFalse(response);
+
+    }
+
+    @Test
+    public void testHasActiveReservationWithOverlappingDateRangeWhenAdjacent() {
+        UUID lodgeId = UUID.fromString("b86553e1-2552-41cb-9e40-7ef87c424850");
+        LocalDateTime dateFrom = LocalDateTime.parse("2024-05-23T00:00:00");
+        LocalDateTime dateTo = LocalDateTime.parse("2024-05-27T00:00:00");
+
+        boolean response = reservationService.hasActiveReservationWithOverlappingDateRange(lodgeId, dateFrom, dateTo);
+
+        assertFalse(response);
+
+    }
+
+    @Test
+    public void testCreateReservationOverlappingActiveReservation() {
+        RequestForReservation request = RequestForReservation.builder()
+                .id(UUID.randomUUID())
+                .lodgeId(UUID.fromString("b86553e1-2552-41cb-9e40-7ef87c424850"))
+                .guestId(UUID.fromString("e49fcaa5-d45b-4556-9d91-13e58187fea6"))
+                .ownerId(UUID.fromString("e49fcab5-d45b-4556-9d91-14e58177fea6"))
+                .price(99.99)
+                .dateFrom(LocalDateTime.parse("2024-05-21T00:00:00"))
+                .dateTo(LocalDateTime.parse("2024-05-25T00:00:00"))
+                .numberOfGuests(2)
+                .build();
+
+        assertThrows(BadRequestException.class, () -> reservationService.createReservation(request));
+        assertEquals(1, reservationRepository.findByStatusAndLodgeId(ReservationStatus.ACTIVE, request.getLodgeId()).size());
+
+    }
+
     private void mockGuest(String userId) {
         UserDto mockUserDTO = UserDto.builder()
                 .id(UUID.fromString(userId))